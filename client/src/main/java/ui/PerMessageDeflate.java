@@ -0,0 +1,262 @@
+package ui;
+
+import org.glassfish.tyrus.core.extension.ExtendedExtension;
+import org.glassfish.tyrus.core.frame.Frame;
+
+import javax.websocket.Extension;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * The RFC 7692 permessage-deflate extension for the Tyrus client. Offering it
+ * is what turns compression on: the server compresses whatever it sends once
+ * the extension is negotiated, so full-board LOAD_GAME frames shrink to a
+ * fraction of their JSON size.
+ * <p>
+ * Settings come from system properties:
+ * <ul>
+ *   <li>{@code chess.ws.deflate} (default true) offers the extension at all</li>
+ *   <li>{@code chess.ws.deflate.minBytes} (default 256): outgoing messages
+ *       smaller than this are sent uncompressed</li>
+ *   <li>{@code chess.ws.deflate.contextTakeover} (default true) keeps each
+ *       side's compression window between messages. Consecutive boards then
+ *       compress against each other, at the cost of a 32KB window held per
+ *       direction for the life of the connection. False asks both sides to
+ *       start every message from scratch.</li>
+ *   <li>{@code chess.ws.deflate.level} (default 6) is the zlib level</li>
+ *   <li>{@code chess.ws.deflate.maxMessageBytes} (default 1MB): an incoming
+ *       message that inflates past this is rejected</li>
+ * </ul>
+ * Each connection keeps its own compressor state in the Tyrus extension
+ * context, so one instance can be offered on every reconnect.
+ */
+class PerMessageDeflate implements ExtendedExtension {
+
+    static final String NAME = "permessage-deflate";
+    private static final String CLIENT_NO_CONTEXT_TAKEOVER = "client_no_context_takeover";
+    private static final String SERVER_NO_CONTEXT_TAKEOVER = "server_no_context_takeover";
+    private static final String STATE = PerMessageDeflate.class.getName();
+
+    private static final byte CONTINUATION = 0x0;
+    // Every sync-flushed message ends with this empty stored block; the
+    // sender strips it and the receiver puts it back.
+    private static final byte[] TAIL = {0x00, 0x00, (byte) 0xFF, (byte) 0xFF};
+
+    private final int minBytes;
+    private final boolean contextTakeover;
+    private final int level;
+    private final int maxMessageBytes;
+
+    PerMessageDeflate(int minBytes, boolean contextTakeover, int level, int maxMessageBytes) {
+        this.minBytes = minBytes;
+        this.contextTakeover = contextTakeover;
+        this.level = level;
+        this.maxMessageBytes = maxMessageBytes;
+    }
+
+    /**
+     * The extension configured from system properties, or null if
+     * compression is switched off.
+     */
+    static PerMessageDeflate fromSystemProperties() {
+        if (!Boolean.parseBoolean(System.getProperty("chess.ws.deflate", "true"))) {
+            return null;
+        }
+        return new PerMessageDeflate(Integer.getInteger("chess.ws.deflate.minBytes", 256),
+                Boolean.parseBoolean(System.getProperty("chess.ws.deflate.contextTakeover", "true")),
+                Integer.getInteger("chess.ws.deflate.level", 6),
+                Integer.getInteger("chess.ws.deflate.maxMessageBytes", 1 << 20));
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * The offer sent with the handshake.
+     */
+    @Override
+    public List<Parameter> getParameters() {
+        List<Parameter> offer = new ArrayList<>();
+        if (!contextTakeover) {
+            offer.add(new Param(CLIENT_NO_CONTEXT_TAKEOVER));
+            offer.add(new Param(SERVER_NO_CONTEXT_TAKEOVER));
+        }
+        return offer;
+    }
+
+    @Override
+    public void onHandshakeResponse(ExtensionContext context, List<Parameter> responseParameters) {
+        // The server may ask us to reset even if we didn't offer to.
+        boolean resetOutgoing = !contextTakeover;
+        boolean resetIncoming = !contextTakeover;
+        for (Parameter p : responseParameters) {
+            if (CLIENT_NO_CONTEXT_TAKEOVER.equals(p.getName())) {
+                resetOutgoing = true;
+            } else if (SERVER_NO_CONTEXT_TAKEOVER.equals(p.getName())) {
+                resetIncoming = true;
+            }
+        }
+        context.getProperties().put(STATE, new Codec(level, resetOutgoing, resetIncoming, maxMessageBytes));
+    }
+
+    @Override
+    public List<Parameter> onExtensionNegotiation(ExtensionContext context, List<Parameter> requestedParameters) {
+        // Server side only; the client never negotiates.
+        return null;
+    }
+
+    @Override
+    public Frame processOutgoing(ExtensionContext context, Frame frame) {
+        Codec codec = (Codec) context.getProperties().get(STATE);
+        // Only whole data messages at or above the threshold are compressed;
+        // anything else goes out untouched with RSV1 clear, which the RFC allows.
+        if (codec == null || frame.isControlFrame() || frame.getOpcode() == CONTINUATION || !frame.isFin()
+                || frame.getPayloadData().length < minBytes) {
+            return frame;
+        }
+        return Frame.builder(frame).payloadData(codec.compress(frame.getPayloadData())).rsv1(true).build();
+    }
+
+    @Override
+    public Frame processIncoming(ExtensionContext context, Frame frame) {
+        Codec codec = (Codec) context.getProperties().get(STATE);
+        if (codec == null || frame.isControlFrame()) {
+            return frame;
+        }
+        // RSV1 marks only the first frame of a compressed message.
+        if (frame.getOpcode() != CONTINUATION) {
+            codec.inflating = frame.isRsv1();
+        }
+        if (!codec.inflating) {
+            return frame;
+        }
+        return Frame.builder(frame).payloadData(codec.inflate(frame.getPayloadData(), frame.isFin())).rsv1(false)
+                .build();
+    }
+
+    @Override
+    public void destroy(ExtensionContext context) {
+        Codec codec = (Codec) context.getProperties().remove(STATE);
+        if (codec != null) {
+            codec.end();
+        }
+    }
+
+    /**
+     * Compressor and decompressor for one connection. Tyrus processes each
+     * direction on one thread at a time. Input that isn't valid DEFLATE, or
+     * that inflates past the size limit, is rejected with an
+     * {@link IllegalArgumentException}.
+     */
+    static final class Codec {
+        private final Deflater deflater;
+        private final Inflater inflater = new Inflater(true);
+        private final boolean resetOutgoing;
+        private final boolean resetIncoming;
+        private final int maxMessageBytes;
+        private final byte[] buffer = new byte[8192];
+        private boolean inflating;
+        // Bytes inflated so far for the message being received, across its frames.
+        private long inflated;
+
+        Codec(int level, boolean resetOutgoing, boolean resetIncoming, int maxMessageBytes) {
+            this.deflater = new Deflater(level, true);
+            this.resetOutgoing = resetOutgoing;
+            this.resetIncoming = resetIncoming;
+            this.maxMessageBytes = maxMessageBytes;
+        }
+
+        synchronized byte[] compress(byte[] payload) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length / 2 + 16);
+            deflater.setInput(payload);
+            int n;
+            do {
+                n = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                out.write(buffer, 0, n);
+            } while (n == buffer.length);
+            if (resetOutgoing) {
+                deflater.reset();
+            }
+            byte[] compressed = out.toByteArray();
+            byte[] stripped = new byte[compressed.length - TAIL.length];
+            System.arraycopy(compressed, 0, stripped, 0, stripped.length);
+            return stripped;
+        }
+
+        synchronized byte[] inflate(byte[] data, boolean last) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream((int) Math.min(data.length * 4L, maxMessageBytes));
+            try {
+                drain(data, out);
+                if (last) {
+                    drain(TAIL, out);
+                    // A block with BFINAL set ends the stream, so the next
+                    // message has to start a new one.
+                    if (resetIncoming || inflater.finished()) {
+                        inflater.reset();
+                    }
+                    inflated = 0;
+                }
+            }
+            catch (DataFormatException e) {
+                // The stream can't be trusted after this; start clean.
+                inflater.reset();
+                inflated = 0;
+                throw new IllegalArgumentException("Rejected compressed message: " + e.getMessage(), e);
+            }
+            return out.toByteArray();
+        }
+
+        private void drain(byte[] data, ByteArrayOutputStream out) throws DataFormatException {
+            // Anything after the final block, such as the tail, is ignored.
+            if (inflater.finished()) {
+                return;
+            }
+            inflater.setInput(data);
+            while (!inflater.finished()) {
+                int remaining = inflater.getRemaining();
+                int n = inflater.inflate(buffer);
+                if (inflater.needsDictionary()) {
+                    throw new DataFormatException("Preset dictionaries are not allowed");
+                }
+                if (n == 0) {
+                    if (inflater.needsInput()) {
+                        return;
+                    }
+                    if (inflater.getRemaining() == remaining) {
+                        // No progress either way; stop rather than spin.
+                        throw new DataFormatException("Inflater made no progress");
+                    }
+                    continue;
+                }
+                inflated += n;
+                if (inflated > maxMessageBytes) {
+                    throw new DataFormatException("Message inflates past " + maxMessageBytes + " bytes");
+                }
+                out.write(buffer, 0, n);
+            }
+        }
+
+        synchronized void end() {
+            deflater.end();
+            inflater.end();
+        }
+    }
+
+    private record Param(String name) implements Parameter {
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getValue() {
+            return null;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package ui;
 
 import com.google.gson.Gson;
+import serialization.Serializer;
 import model.AuthData;
 import model.GameData;
 import websocket.messages.ServerMessage;
@@ -15,7 +16,7 @@ import java.util.stream.Collectors;
 
 public class ServerFacade implements ServerMessageObserver {
     private final String baseUrl;
-    private static final Gson GSON = new Gson();
+    private static final Gson GSON = Serializer.GSON;
 
     private ChessClient client;
     public void setClient(ChessClient client) {
@@ -24,6 +25,12 @@ public class ServerFacade implements ServerMessageObserver {
 
     // New field for WebSocket communication.
     private WebSocketCommunicator wsComm;
+    // Compact binary frames instead of JSON; off unless -Dchess.ws.binary=true.
+    private boolean binaryWebSocket = Boolean.getBoolean("chess.ws.binary");
+
+    public void setBinaryWebSocket(boolean binary) {
+        this.binaryWebSocket = binary;
+    }
 
     public ServerFacade(int port) {
         this("http://localhost:" + port);
@@ -60,6 +67,12 @@ public class ServerFacade implements ServerMessageObserver {
         makeRequest("POST", path, body, null, authToken);
     }
 
+    public void createTimedGame(String authToken, String gameName, int baseSeconds, int incrementSeconds) {
+        record CreateGameRequest(String gameName, int baseSeconds, int incrementSeconds) {}
+        CreateGameRequest body = new CreateGameRequest(gameName, baseSeconds, incrementSeconds);
+        makeRequest("POST", "/game", body, null, authToken);
+    }
+
     public GameData getGame(String authToken, int gameId) {
         String path = "/game/" + gameId;
         return makeRequest("GET", path, null, GameData.class, authToken);
@@ -74,6 +87,15 @@ public class ServerFacade implements ServerMessageObserver {
         return Arrays.asList(response.games());
     }
 
+    public List<GameData> listMyGames(String authToken) {
+        record GameListResponse(GameData[] games) {}
+        GameListResponse response = makeRequest("GET", "/user/games", null, GameListResponse.class, authToken);
+        if (response == null || response.games() == null) {
+            return List.of();
+        }
+        return Arrays.asList(response.games());
+    }
+
     public void joinGame(String authToken, int gameId, String color) {
         record JoinGameRequest(String playerColor, int gameID) {}
         String path = "/game";
@@ -82,7 +104,7 @@ public class ServerFacade implements ServerMessageObserver {
     }
 
     public void connectToGame(String authToken, int gameId) {
-        wsComm = new WebSocketCommunicator(baseUrl, this);
+        wsComm = new WebSocketCommunicator(baseUrl, this, binaryWebSocket);
         wsComm.connect();
         wsComm.sendConnectCommand(authToken, gameId);
     }
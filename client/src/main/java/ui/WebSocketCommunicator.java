@@ -1,6 +1,11 @@
 package ui;
 
+import chess.ChessGame;
+import chess.ChessGameCodec;
+import chess.InvalidMoveException;
 import com.google.gson.Gson;
+import serialization.BinaryProtocol;
+import serialization.Serializer;
 import org.glassfish.tyrus.client.ClientManager;
 import websocket.commands.UserGameCommand;
 import websocket.messages.ServerMessage;
@@ -8,55 +13,200 @@ import websocket.messages.ServerMessage;
 import javax.websocket.ClientEndpointConfig;
 import javax.websocket.Session;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 
 import javax.websocket.*;
 
-@ClientEndpoint
 public class WebSocketCommunicator {
     private Session session;
     private static ServerMessageObserver observer;
     private final String serverUrl;
-    private final Gson gson = new Gson();
+    private final Gson gson = Serializer.GSON;
+    private final boolean binary;
+    private final PerMessageDeflate deflate;
     private CountDownLatch latch = new CountDownLatch(1);
 
+    // Local copy kept in step with MOVE deltas; only touched on the receive thread.
+    private ChessGame game;
+    private volatile String authToken;
+    private volatile Integer gameID;
+    private volatile long lastSeq;
+
+    private static final int RESUME_ATTEMPTS = 5;
+
     public WebSocketCommunicator(String serverUrl, ServerMessageObserver observer) {
+        this(serverUrl, observer, false);
+    }
+
+    /**
+     * @param binary send commands as {@link BinaryProtocol} frames; the server
+     *               answers in kind from the first one on
+     */
+    public WebSocketCommunicator(String serverUrl, ServerMessageObserver observer, boolean binary) {
+        this(serverUrl, observer, binary, PerMessageDeflate.fromSystemProperties());
+    }
+
+    /**
+     * @param deflate the compression offered to the server, or null to send
+     *                and receive everything uncompressed
+     */
+    WebSocketCommunicator(String serverUrl, ServerMessageObserver observer, boolean binary,
+                          PerMessageDeflate deflate) {
         this.serverUrl = serverUrl;
+        this.binary = binary;
+        this.deflate = deflate;
         WebSocketCommunicator.observer = observer;
     }
 
     public void connect() {
         try {
-            ClientManager client = ClientManager.createClient();
-            String wsUrl = serverUrl.replace("http://", "ws://") + "/ws";
-            session = client.connectToServer(this, URI.create(wsUrl));
-            latch.await();
+            open();
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
-    @OnOpen
+    private void open() throws Exception {
+        latch = new CountDownLatch(1);
+        ClientManager client = ClientManager.createClient();
+        String wsUrl = serverUrl.replace("http://", "ws://") + "/ws";
+        // Extensions can only be offered through a programmatic endpoint, so
+        // the callbacks below are wired up by hand rather than by annotation.
+        ClientEndpointConfig config = ClientEndpointConfig.Builder.create()
+                .extensions(deflate == null ? List.of() : List.of(deflate))
+                .build();
+        session = client.connectToServer(new Endpoint() {
+            @Override
+            public void onOpen(Session opened, EndpointConfig endpointConfig) {
+                opened.addMessageHandler(String.class,
+                        (MessageHandler.Whole<String>) WebSocketCommunicator.this::onMessage);
+                opened.addMessageHandler(ByteBuffer.class,
+                        (MessageHandler.Whole<ByteBuffer>) WebSocketCommunicator.this::onMessage);
+                WebSocketCommunicator.this.onOpen(opened);
+            }
+
+            @Override
+            public void onClose(Session closed, CloseReason reason) {
+                WebSocketCommunicator.this.onClose(closed);
+            }
+        }, config, URI.create(wsUrl));
+        latch.await();
+    }
+
     public void onOpen(Session session) {
         this.session = session;
         latch.countDown();
     }
 
-    @OnMessage
+    public void onClose(Session closed) {
+        if (authToken != null && gameID != null) {
+            Thread resumer = new Thread(this::resume, "ws-resume");
+            resumer.setDaemon(true);
+            resumer.start();
+        }
+    }
+
+    /**
+     * Reconnects after a dropped connection and asks for only the events
+     * missed since {@link #lastSeq}. Gives up after a few attempts.
+     */
+    private void resume() {
+        for (int attempt = 1; attempt <= RESUME_ATTEMPTS; attempt++) {
+            try {
+                Thread.sleep(attempt * 1000L);
+                String token = authToken;
+                Integer id = gameID;
+                if (token == null || id == null) {
+                    return;
+                }
+                open();
+                UserGameCommand command = new UserGameCommand(UserGameCommand.CommandType.RESUME, token, id);
+                command.deltaUpdates = true;
+                command.lastSeq = lastSeq;
+                sendCommand(command);
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                System.out.println("Reconnect attempt " + attempt + " failed: " + e.getMessage());
+            }
+        }
+    }
+
     public void onMessage(String message) {
-        ServerMessage serverMessage = gson.fromJson(message, ServerMessage.class);
+        deliver(gson.fromJson(message, ServerMessage.class));
+    }
+
+    public void onMessage(ByteBuffer message) {
+        byte[] bytes = new byte[message.remaining()];
+        message.get(bytes);
+        deliver(BinaryProtocol.decodeMessage(bytes, 0, bytes.length));
+    }
+
+    private void deliver(ServerMessage serverMessage) {
+        if (serverMessage.seq != 0) {
+            lastSeq = serverMessage.seq;
+        }
+        switch (serverMessage.getServerMessageType()) {
+            case LOAD_GAME -> game = serverMessage.game;
+            case MOVE -> {
+                serverMessage = applyMove(serverMessage);
+                if (serverMessage == null) {
+                    return;
+                }
+            }
+            default -> { }
+        }
         observer.onServerMessage(serverMessage);
     }
 
+    /**
+     * Replays a MOVE delta on the local copy of the game and hands the result
+     * on as a LOAD_GAME. If there is no local copy, the move doesn't apply, or
+     * the resulting position doesn't match the server's hash, the local copy
+     * is dropped and a fresh CONNECT asks the server for the full board.
+     */
+    private ServerMessage applyMove(ServerMessage delta) {
+        if (game != null) {
+            try {
+                game.makeMove(delta.move);
+                game.setClock(delta.clock);
+                if (delta.checkmate || delta.stalemate) {
+                    game.setGameOver(true);
+                }
+                if (ChessGameCodec.positionHash(game) == delta.positionHash) {
+                    return ServerMessage.loadGame(game);
+                }
+            } catch (InvalidMoveException e) {
+                // fall through to a resync
+            }
+        }
+        game = null;
+        if (authToken != null && gameID != null) {
+            sendConnectCommand(authToken, gameID);
+        }
+        return null;
+    }
+
     public void sendCommand(UserGameCommand command) {
-        String json = gson.toJson(command);
-        if (session != null && session.isOpen()) {
-            session.getAsyncRemote().sendText(json);
+        if (session == null || !session.isOpen()) {
+            return;
+        }
+        if (binary) {
+            session.getAsyncRemote().sendBinary(ByteBuffer.wrap(BinaryProtocol.encodeCommand(command)));
+        } else {
+            session.getAsyncRemote().sendText(gson.toJson(command));
         }
     }
 
     public void sendConnectCommand(String authToken, int gameID) {
+        this.authToken = authToken;
+        this.gameID = gameID;
         UserGameCommand command = new UserGameCommand(UserGameCommand.CommandType.CONNECT, authToken, gameID);
+        command.deltaUpdates = true;
         sendCommand(command);
     }
 
@@ -71,6 +221,7 @@ public class WebSocketCommunicator {
     }
 
     public void sendLeaveCommand(String authToken, int gameID) {
+        this.gameID = null;
         UserGameCommand command = new UserGameCommand(UserGameCommand.CommandType.LEAVE, authToken, gameID);
         sendCommand(command);
     }
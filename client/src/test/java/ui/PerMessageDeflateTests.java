@@ -0,0 +1,218 @@
+package ui;
+
+import org.glassfish.tyrus.core.extension.ExtendedExtension;
+import org.glassfish.tyrus.core.frame.Frame;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.websocket.Extension;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PerMessageDeflateTests {
+
+    private static final int MAX = 1 << 20;
+    private static final byte TEXT = 0x1;
+    private static final String BOARD = "{\"serverMessageType\":\"LOAD_GAME\",\"game\":{\"board\":"
+            + "\"rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR\",\"teamTurn\":\"WHITE\",\"gameOver\":false}}";
+
+    @AfterEach
+    void teardown() {
+        System.clearProperty("chess.ws.deflate");
+        System.clearProperty("chess.ws.deflate.minBytes");
+        System.clearProperty("chess.ws.deflate.contextTakeover");
+    }
+
+    private static byte[] bytes(int... values) {
+        byte[] out = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            out[i] = (byte) values[i];
+        }
+        return out;
+    }
+
+    private static byte[] utf8(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(byte[] data) {
+        return new String(data, StandardCharsets.UTF_8);
+    }
+
+    private static ExtendedExtension.ExtensionContext context() {
+        Map<String, Object> properties = new HashMap<>();
+        return () -> properties;
+    }
+
+    @Test
+    void testRoundTripWithContextTakeover() {
+        PerMessageDeflate.Codec sender = new PerMessageDeflate.Codec(6, false, false, MAX);
+        PerMessageDeflate.Codec receiver = new PerMessageDeflate.Codec(6, false, false, MAX);
+
+        int first = 0;
+        for (int i = 0; i < 5; i++) {
+            String message = BOARD + i;
+            byte[] compressed = sender.compress(utf8(message));
+            assertEquals(message, text(receiver.inflate(compressed, true)));
+            if (i == 0) {
+                first = compressed.length;
+            } else {
+                assertTrue(compressed.length < first, "Later boards compress against the earlier ones");
+            }
+        }
+    }
+
+    @Test
+    void testRoundTripWithoutContextTakeover() {
+        PerMessageDeflate.Codec sender = new PerMessageDeflate.Codec(6, true, true, MAX);
+        PerMessageDeflate.Codec receiver = new PerMessageDeflate.Codec(6, true, true, MAX);
+
+        byte[] first = sender.compress(utf8(BOARD));
+        for (int i = 0; i < 3; i++) {
+            byte[] compressed = sender.compress(utf8(BOARD));
+            assertArrayEquals(first, compressed, "Every message starts from an empty window");
+            assertEquals(BOARD, text(receiver.inflate(compressed, true)));
+        }
+    }
+
+    @Test
+    void testFragmentedMessages() {
+        PerMessageDeflate.Codec sender = new PerMessageDeflate.Codec(6, false, false, MAX);
+        PerMessageDeflate.Codec receiver = new PerMessageDeflate.Codec(6, false, false, MAX);
+
+        for (int i = 0; i < 3; i++) {
+            String message = BOARD.repeat(20) + i;
+            byte[] compressed = sender.compress(utf8(message));
+            int a = compressed.length / 3;
+            int b = 2 * compressed.length / 3;
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            out.writeBytes(receiver.inflate(Arrays.copyOfRange(compressed, 0, a), false));
+            out.writeBytes(receiver.inflate(Arrays.copyOfRange(compressed, a, b), false));
+            out.writeBytes(receiver.inflate(Arrays.copyOfRange(compressed, b, compressed.length), true));
+            assertEquals(message, text(out.toByteArray()));
+        }
+    }
+
+    @Test
+    void testInflatesRfcExamples() {
+        PerMessageDeflate.Codec receiver = new PerMessageDeflate.Codec(6, false, false, MAX);
+        byte[] hello = bytes(0xf2, 0x48, 0xcd, 0xc9, 0xc9, 0x07, 0x00);
+
+        // RFC 7692 7.2.3.1 and 7.2.3.2: the second message refers back to the first.
+        assertEquals("Hello", text(receiver.inflate(hello, true)));
+        assertEquals("Hello", text(receiver.inflate(bytes(0xf2, 0x00, 0x11, 0x00, 0x00), true)));
+
+        // 7.2.3.3: a stored block.
+        assertEquals("Hello", text(receiver.inflate(
+                bytes(0x00, 0x05, 0x00, 0xfa, 0xff, 0x48, 0x65, 0x6c, 0x6c, 0x6f, 0x00), true)));
+
+        // 7.2.3.4: a final block ends the stream, and the next message starts a new one.
+        assertEquals("Hello", text(receiver.inflate(bytes(0xf3, 0x48, 0xcd, 0xc9, 0xc9, 0x07, 0x00, 0x00), true)));
+        assertEquals("Hello", text(receiver.inflate(hello, true)));
+    }
+
+    @Test
+    void testCompressesLikeRfcExample() {
+        PerMessageDeflate.Codec sender = new PerMessageDeflate.Codec(6, true, true, MAX);
+
+        assertArrayEquals(bytes(0xf2, 0x48, 0xcd, 0xc9, 0xc9, 0x07, 0x00), sender.compress(utf8("Hello")));
+    }
+
+    @Test
+    void testMalformedInputIsRejected() {
+        PerMessageDeflate.Codec receiver = new PerMessageDeflate.Codec(6, false, false, MAX);
+
+        // Block type 3 is reserved.
+        assertThrows(IllegalArgumentException.class, () -> receiver.inflate(bytes(0xff, 0xff, 0xff), true));
+        // A stored block whose length check doesn't match.
+        assertThrows(IllegalArgumentException.class,
+                () -> receiver.inflate(bytes(0x00, 0x05, 0x00, 0x00, 0x00, 0x48), true));
+
+        assertEquals("Hello", text(receiver.inflate(bytes(0xf2, 0x48, 0xcd, 0xc9, 0xc9, 0x07, 0x00), true)),
+                "The codec starts clean after a rejected message");
+    }
+
+    @Test
+    void testOversizedMessageIsRejected() {
+        PerMessageDeflate.Codec sender = new PerMessageDeflate.Codec(6, true, true, MAX);
+        PerMessageDeflate.Codec receiver = new PerMessageDeflate.Codec(6, true, true, 4096);
+
+        byte[] big = sender.compress(new byte[5000]);
+        assertThrows(IllegalArgumentException.class, () -> receiver.inflate(big, true));
+
+        // Each fragment is under the limit, but the message as a whole is not.
+        byte[] fragmented = sender.compress(utf8(BOARD.repeat(40)));
+        int half = fragmented.length / 2;
+        receiver.inflate(Arrays.copyOfRange(fragmented, 0, half), false);
+        assertThrows(IllegalArgumentException.class,
+                () -> receiver.inflate(Arrays.copyOfRange(fragmented, half, fragmented.length), true));
+    }
+
+    @Test
+    void testHighlyCompressedInputStopsAtLimit() {
+        PerMessageDeflate.Codec sender = new PerMessageDeflate.Codec(9, true, true, Integer.MAX_VALUE);
+        PerMessageDeflate.Codec receiver = new PerMessageDeflate.Codec(6, true, true, MAX);
+        byte[] bomb = sender.compress(new byte[64 << 20]);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> assertThrows(IllegalArgumentException.class, () -> receiver.inflate(bomb, true)));
+    }
+
+    @Test
+    void testSettingsFromSystemProperties() {
+        PerMessageDeflate defaults = PerMessageDeflate.fromSystemProperties();
+        assertNotNull(defaults);
+        assertEquals("permessage-deflate", defaults.getName());
+        assertTrue(defaults.getParameters().isEmpty(), "Context takeover is on unless turned off");
+
+        System.setProperty("chess.ws.deflate.contextTakeover", "false");
+        List<String> offered = PerMessageDeflate.fromSystemProperties().getParameters().stream()
+                .map(Extension.Parameter::getName).toList();
+        assertEquals(List.of("client_no_context_takeover", "server_no_context_takeover"), offered);
+
+        System.setProperty("chess.ws.deflate", "false");
+        assertNull(PerMessageDeflate.fromSystemProperties());
+    }
+
+    @Test
+    void testFramesThroughTheExtension() {
+        System.setProperty("chess.ws.deflate.minBytes", "64");
+        PerMessageDeflate client = PerMessageDeflate.fromSystemProperties();
+        PerMessageDeflate server = new PerMessageDeflate(64, true, 6, MAX);
+        ExtendedExtension.ExtensionContext out = context();
+        ExtendedExtension.ExtensionContext in = context();
+        client.onHandshakeResponse(out, List.of());
+        server.onHandshakeResponse(in, List.of());
+
+        Frame small = Frame.builder().opcode(TEXT).fin(true).payloadData(utf8("{\"a\":1}")).build();
+        assertSame(small, client.processOutgoing(out, small), "Messages under minBytes go out as they are");
+
+        Frame sent = client.processOutgoing(out,
+                Frame.builder().opcode(TEXT).fin(true).payloadData(utf8(BOARD)).build());
+        assertTrue(sent.isRsv1());
+        assertTrue(sent.getPayloadData().length < utf8(BOARD).length);
+
+        // The same message arriving in two frames; only the first carries RSV1.
+        byte[] payload = sent.getPayloadData();
+        int half = payload.length / 2;
+        Frame first = server.processIncoming(in, Frame.builder().opcode(TEXT).fin(false).rsv1(true)
+                .payloadData(Arrays.copyOfRange(payload, 0, half)).build());
+        Frame rest = server.processIncoming(in, Frame.builder().opcode((byte) 0).fin(true)
+                .payloadData(Arrays.copyOfRange(payload, half, payload.length)).build());
+        assertFalse(first.isRsv1());
+        assertEquals(BOARD, text(first.getPayloadData()) + text(rest.getPayloadData()));
+
+        Frame plain = Frame.builder().opcode(TEXT).fin(true).payloadData(utf8("{\"a\":1}")).build();
+        assertSame(plain, server.processIncoming(in, plain), "Uncompressed messages pass straight through");
+
+        client.destroy(out);
+        server.destroy(in);
+    }
+}
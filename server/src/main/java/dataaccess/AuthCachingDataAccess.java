@@ -0,0 +1,100 @@
+package dataaccess;
+
+import model.AuthData;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches auth token lookups in front of another {@link DataAccess}.
+ * <p>
+ * Valid tokens are kept for a short TTL, and tokens that were looked up and
+ * not found are remembered too, so repeated requests with a bogus token stop
+ * reaching the database. Deleting a token invalidates it here immediately.
+ * Because cached entries are not re-checked against the store, a token can
+ * outlive its server-side expiry by at most {@code validTtl}.
+ * <p>
+ * A lookup that misses can read a token from the store just before a logout
+ * deletes it. Every delete bumps {@code deletions}, and a lookup that sees the
+ * count change while it was loading drops what it cached, so a deleted token
+ * is never cached as valid.
+ */
+public class AuthCachingDataAccess extends ForwardingDataAccess {
+
+    private final BoundedCache<String, AuthData> validTokens;
+    private final BoundedCache<String, Boolean> invalidTokens;
+    private final AtomicLong deletions = new AtomicLong();
+
+    public AuthCachingDataAccess(DataAccess delegate, int maxTokens, Duration validTtl, Duration invalidTtl) {
+        super(delegate);
+        this.validTokens = new BoundedCache<>("cache.auth", maxTokens, validTtl, false);
+        this.invalidTokens = new BoundedCache<>("cache.auth.invalid", maxTokens, invalidTtl, false);
+    }
+
+    @Override
+    public void createAuth(AuthData auth) throws DataAccessException {
+        delegate.createAuth(auth);
+        invalidTokens.invalidate(auth.authToken());
+        validTokens.put(auth.authToken(), auth);
+    }
+
+    @Override
+    public AuthData getAuth(String authToken) throws DataAccessException {
+        if (authToken == null) {
+            return null;
+        }
+        if (invalidTokens.get(authToken) != null) {
+            return null;
+        }
+        AuthData cached = validTokens.get(authToken);
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = deletions.get();
+        AuthData auth = delegate.getAuth(authToken);
+        if (auth != null) {
+            validTokens.put(authToken, auth);
+            // Re-checked after the put: a delete that finished in between has
+            // already run its own invalidate, and might have missed this entry.
+            if (deletions.get() != generation) {
+                validTokens.invalidate(authToken);
+            }
+        }
+        else {
+            invalidTokens.put(authToken, Boolean.TRUE);
+        }
+        return auth;
+    }
+
+    @Override
+    public void deleteAuth(String authToken) throws DataAccessException {
+        deletions.incrementAndGet();
+        validTokens.invalidate(authToken);
+        delegate.deleteAuth(authToken);
+        invalidTokens.put(authToken, Boolean.TRUE);
+        validTokens.invalidate(authToken);
+    }
+
+    @Override
+    public int deleteAuths(Collection<String> authTokens) throws DataAccessException {
+        deletions.incrementAndGet();
+        authTokens.forEach(validTokens::invalidate);
+        int deleted = delegate.deleteAuths(authTokens);
+        authTokens.forEach(token -> invalidTokens.put(token, Boolean.TRUE));
+        authTokens.forEach(validTokens::invalidate);
+        return deleted;
+    }
+
+    @Override
+    public void clear() throws DataAccessException {
+        try {
+            delegate.clear();
+        }
+        finally {
+            validTokens.clear();
+            invalidTokens.clear();
+        }
+    }
+}
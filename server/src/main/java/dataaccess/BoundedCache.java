@@ -0,0 +1,95 @@
+package dataaccess;
+
+import metrics.Metrics;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A small size- and time-bounded LRU cache.
+ * <p>
+ * Entries expire {@code ttl} after they were written, or after they were last
+ * read when {@code expireAfterAccess} is set. Once {@code maxSize} is reached
+ * the least recently used entry is evicted. Hits, misses and evictions are
+ * published to {@link Metrics} under the given name.
+ */
+class BoundedCache<K, V> {
+
+    private record Entry<V>(V value, long stampNanos) { }
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final boolean expireAfterAccess;
+    private final LinkedHashMap<K, Entry<V>> map;
+
+    private final Metrics.Counter hits;
+    private final Metrics.Counter misses;
+    private final Metrics.Counter evictions;
+
+    BoundedCache(String name, int maxSize, Duration ttl, boolean expireAfterAccess) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.expireAfterAccess = expireAfterAccess;
+        // Access order keeps the idlest entry at the head; insertion order keeps the oldest write there.
+        this.map = new LinkedHashMap<>(16, 0.75f, expireAfterAccess);
+
+        this.hits = Metrics.counter(name + ".hits");
+        this.misses = Metrics.counter(name + ".misses");
+        this.evictions = Metrics.counter(name + ".evictions");
+        Metrics.gauge(name + ".size", this::size);
+    }
+
+    synchronized V get(K key) {
+        Entry<V> entry = map.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        long now = System.nanoTime();
+        if (now - entry.stampNanos() > ttlNanos) {
+            map.remove(key);
+            evictions.increment();
+            misses.increment();
+            return null;
+        }
+        if (expireAfterAccess) {
+            map.put(key, new Entry<>(entry.value(), now));
+        }
+        hits.increment();
+        return entry.value();
+    }
+
+    synchronized void put(K key, V value) {
+        long now = System.nanoTime();
+        // Re-inserting moves the key to the tail even in insertion order.
+        map.remove(key);
+        map.put(key, new Entry<>(value, now));
+        purge(now);
+    }
+
+    synchronized void invalidate(K key) {
+        map.remove(key);
+    }
+
+    synchronized void clear() {
+        map.clear();
+    }
+
+    synchronized int size() {
+        return map.size();
+    }
+
+    private void purge(long now) {
+        Iterator<Map.Entry<K, Entry<V>>> it = map.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<K, Entry<V>> head = it.next();
+            if (map.size() <= maxSize && now - head.getValue().stampNanos() <= ttlNanos) {
+                break;
+            }
+            it.remove();
+            evictions.increment();
+        }
+    }
+}
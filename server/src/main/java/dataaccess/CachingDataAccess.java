@@ -0,0 +1,116 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessGameCodec;
+import model.GameData;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps recently used games resident in memory in front of another
+ * {@link DataAccess}. Writes go through to the underlying store first and only
+ * then update the cache, so the store always holds the authoritative copy.
+ * <p>
+ * The cache keeps its own copy of each game and hands every caller a fresh
+ * one, so a caller changing its game, or serializing it, never races with
+ * another. If a write fails the entry is dropped and the next read reloads it.
+ */
+public class CachingDataAccess extends ForwardingDataAccess {
+
+    private final BoundedCache<Integer, GameData> games;
+
+    public CachingDataAccess(DataAccess delegate, int maxGames, Duration gameIdleTimeout) {
+        super(delegate);
+        this.games = new BoundedCache<>("cache.games", maxGames, gameIdleTimeout, true);
+    }
+
+    @Override
+    public int createGame(GameData game) throws DataAccessException {
+        int gameID = delegate.createGame(game);
+        games.put(gameID, new GameData(gameID, game.whiteUsername(), game.blackUsername(),
+                game.gameName(), ChessGameCodec.copy(game.game()), game.version()));
+        return gameID;
+    }
+
+    @Override
+    public GameData getGame(int gameID) throws DataAccessException {
+        GameData cached = games.get(gameID);
+        if (cached != null) {
+            return cached.copy();
+        }
+        GameData game = delegate.getGame(gameID);
+        if (game != null) {
+            games.put(gameID, game.copy());
+        }
+        return game;
+    }
+
+    @Override
+    public List<Integer> createGames(List<GameData> newGames) throws DataAccessException {
+        List<Integer> ids = delegate.createGames(newGames);
+        for (int i = 0; i < ids.size(); i++) {
+            GameData game = newGames.get(i);
+            games.put(ids.get(i), new GameData(ids.get(i), game.whiteUsername(), game.blackUsername(),
+                    game.gameName(), ChessGameCodec.copy(game.game()), game.version()));
+        }
+        return ids;
+    }
+
+    @Override
+    public Map<Integer, GameData> getGames(Collection<Integer> gameIDs) throws DataAccessException {
+        Map<Integer, GameData> found = new HashMap<>();
+        List<Integer> misses = new ArrayList<>();
+        for (Integer gameID : gameIDs) {
+            GameData cached = games.get(gameID);
+            if (cached != null) {
+                found.put(gameID, cached.copy());
+            }
+            else {
+                misses.add(gameID);
+            }
+        }
+        if (!misses.isEmpty()) {
+            Map<Integer, GameData> loaded = delegate.getGames(misses);
+            loaded.forEach((gameID, game) -> games.put(gameID, game.copy()));
+            found.putAll(loaded);
+        }
+        return found;
+    }
+
+    @Override
+    public void updateGame(GameData game) throws DataAccessException {
+        try {
+            delegate.updateGame(game);
+        }
+        catch (DataAccessException e) {
+            games.invalidate(game.gameID());
+            throw e;
+        }
+        games.put(game.gameID(), new GameData(game.gameID(), game.whiteUsername(), game.blackUsername(),
+                game.gameName(), ChessGameCodec.copy(game.game()), game.version() + 1));
+    }
+
+    @Override
+    public boolean claimSeat(int gameID, ChessGame.TeamColor color, String username) throws DataAccessException {
+        boolean claimed = delegate.claimSeat(gameID, color, username);
+        if (claimed) {
+            games.invalidate(gameID);
+        }
+        return claimed;
+    }
+
+    @Override
+    public void clear() throws DataAccessException {
+        try {
+            delegate.clear();
+        }
+        finally {
+            games.clear();
+        }
+    }
+}
@@ -4,78 +4,42 @@ import com.google.gson.Gson;
 import model.AuthData;
 import model.GameData;
 import model.UserData;
+import service.PasswordHasher;
 import chess.ChessGame;
-import org.mindrot.jbcrypt.BCrypt;
+import chess.ChessGameCodec;
 
 import java.sql.*;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 
 public class DBDataAccess implements DataAccess {
 
+    // Keeps IN (...) lists well under the server's placeholder limit.
+    private static final int IN_LIST_LIMIT = 500;
+
+    // Only used to read rows written before the binary gameState column existed.
     private final Gson gson = new Gson();
+    private final Duration authTokenTtl;
 
     public DBDataAccess() throws DataAccessException {
-        configureDatabase();
+        this(DEFAULT_AUTH_TOKEN_TTL);
     }
 
-    private final String[] createStatements = {
-            """
-            CREATE TABLE IF NOT EXISTS userData (
-                username      VARCHAR(50) NOT NULL,
-                passwordHash  VARCHAR(200) NOT NULL,
-                email         VARCHAR(100),
-                PRIMARY KEY (username)
-            ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
-            """,
-            """
-            CREATE TABLE IF NOT EXISTS authData (
-                authToken VARCHAR(100) PRIMARY KEY,
-                username  VARCHAR(50) NOT NULL,
-                FOREIGN KEY (username) REFERENCES userData(username)
-                ON DELETE CASCADE
-                ON UPDATE CASCADE
-            ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
-            """,
-            """
-            CREATE TABLE IF NOT EXISTS gameData (
-                gameID INT PRIMARY KEY,
-                gameName VARCHAR(100),
-                whiteUsername VARCHAR(50),
-                blackUsername VARCHAR(50),
-                gameJSON TEXT NOT NULL
-            ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
-            """
-    };
-
-    public int getMaxGameID() throws DataAccessException {
-        final String sql = "SELECT COALESCE(MAX(gameID), 0) AS max_id FROM gameData";
-
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-
-            if (rs.next()) {
-                return rs.getInt("max_id");
-            }
-            else {
-                return 0;
-            }
-
-        }
-        catch (SQLException e) {
-            throw new DataAccessException("Error retrieving max gameID: " + e.getMessage());
-        }
+    public DBDataAccess(Duration authTokenTtl) throws DataAccessException {
+        this.authTokenTtl = authTokenTtl;
+        configureDatabase();
     }
 
     private void configureDatabase() throws DataAccessException {
         DatabaseManager.createDatabase();
         try (var conn = DatabaseManager.getConnection()) {
-            for (var statement : createStatements) {
-                try (var preparedStatement = conn.prepareStatement(statement)) {
-                    preparedStatement.executeUpdate();
-                }
-            }
+            new SchemaMigrator(Migrations.ALL).migrate(conn);
         }
         catch (SQLException e) {
             throw new DataAccessException(String.format("Unable to configure database: %s", e.getMessage()));
@@ -83,7 +47,7 @@ public class DBDataAccess implements DataAccess {
     }
 
     public void storeUserPassword(String username, String clearTextPassword) throws DataAccessException {
-        String hashedPassword = BCrypt.hashpw(clearTextPassword, BCrypt.gensalt());
+        String hashedPassword = PasswordHasher.getDefault().hash(clearTextPassword);
 
         final String sql = "UPDATE userData SET passwordHash = ? WHERE username = ?";
 
@@ -106,8 +70,7 @@ public class DBDataAccess implements DataAccess {
             return false;
         }
 
-        String hashedPassword = user.password();
-        return BCrypt.checkpw(providedClearTextPassword, hashedPassword);
+        return PasswordHasher.getDefault().verify(providedClearTextPassword, user.password());
     }
 
     @Override
@@ -116,8 +79,6 @@ public class DBDataAccess implements DataAccess {
             throw new DataAccessException("User already exists");
         }
 
-        String hashedPass = BCrypt.hashpw(user.password(), BCrypt.gensalt());
-
         final String sql = """
             INSERT INTO userData (username, passwordHash, email)
             VALUES (?, ?, ?)
@@ -127,7 +88,8 @@ public class DBDataAccess implements DataAccess {
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, user.username());
-            stmt.setString(2, hashedPass);
+            // The service layer hashes passwords before they reach the DAO.
+            stmt.setString(2, user.password());
             stmt.setString(3, user.email());
 
             stmt.executeUpdate();
@@ -170,33 +132,157 @@ public class DBDataAccess implements DataAccess {
     }
 
     @Override
-    public void createGame(GameData game) throws DataAccessException {
+    public int createGame(GameData game) throws DataAccessException {
         final String sql = """
-        INSERT INTO gameData (gameID, gameName, whiteUsername, blackUsername, gameJSON)
+        INSERT INTO gameData (gameID, gameName, whiteUsername, blackUsername, gameState)
         VALUES (?, ?, ?, ?, ?)
     """;
 
         try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
-            stmt.setInt(1, game.gameID());
+            // A NULL id lets AUTO_INCREMENT pick the next one.
+            if (game.gameID() > 0) {
+                stmt.setInt(1, game.gameID());
+            }
+            else {
+                stmt.setNull(1, Types.INTEGER);
+            }
             stmt.setString(2, game.gameName());
             stmt.setString(3, game.whiteUsername());
             stmt.setString(4, game.blackUsername());
-            String gameJson = gson.toJson(game.game());
-            stmt.setString(5, gameJson);
+            stmt.setBytes(5, ChessGameCodec.encode(game.game()));
 
             stmt.executeUpdate();
 
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                if (keys.next()) {
+                    return keys.getInt(1);
+                }
+            }
+            return game.gameID();
+
         } catch (SQLException e) {
             throw new DataAccessException("Error inserting new game: " + e.getMessage());
         }
     }
 
+    @Override
+    public List<Integer> createGames(List<GameData> games) throws DataAccessException {
+        final String sql = """
+        INSERT INTO gameData (gameID, gameName, whiteUsername, blackUsername, gameState)
+        VALUES (?, ?, ?, ?, ?)
+    """;
+        List<Integer> ids = new ArrayList<>(games.size());
+        if (games.isEmpty()) {
+            return ids;
+        }
+
+        try (Connection conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            // Rows with explicit IDs go in one batch and rows that need an
+            // AUTO_INCREMENT ID in another, so generated keys line up with rows.
+            try (PreparedStatement explicit = conn.prepareStatement(sql);
+                 PreparedStatement generated = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+
+                int generatedRows = 0;
+                for (GameData game : games) {
+                    PreparedStatement stmt = game.gameID() > 0 ? explicit : generated;
+                    if (game.gameID() > 0) {
+                        stmt.setInt(1, game.gameID());
+                    }
+                    else {
+                        stmt.setNull(1, Types.INTEGER);
+                        generatedRows++;
+                    }
+                    stmt.setString(2, game.gameName());
+                    stmt.setString(3, game.whiteUsername());
+                    stmt.setString(4, game.blackUsername());
+                    stmt.setBytes(5, ChessGameCodec.encode(game.game()));
+                    stmt.addBatch();
+                }
+                if (generatedRows < games.size()) {
+                    explicit.executeBatch();
+                }
+                List<Integer> keys = new ArrayList<>(generatedRows);
+                if (generatedRows > 0) {
+                    generated.executeBatch();
+                    try (ResultSet rs = generated.getGeneratedKeys()) {
+                        while (rs.next()) {
+                            keys.add(rs.getInt(1));
+                        }
+                    }
+                }
+                conn.commit();
+
+                int next = 0;
+                for (GameData game : games) {
+                    ids.add(game.gameID() > 0 ? game.gameID() : keys.get(next++));
+                }
+                return ids;
+            }
+            catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+        catch (SQLException e) {
+            throw new DataAccessException("Error inserting games: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public Map<Integer, GameData> getGames(Collection<Integer> gameIDs) throws DataAccessException {
+        Map<Integer, GameData> found = new HashMap<>();
+        List<Integer> ids = new ArrayList<>(new LinkedHashSet<>(gameIDs));
+
+        try (Connection conn = DatabaseManager.getConnection()) {
+            for (int from = 0; from < ids.size(); from += IN_LIST_LIMIT) {
+                List<Integer> chunk = ids.subList(from, Math.min(ids.size(), from + IN_LIST_LIMIT));
+                String sql = "SELECT gameID, gameName, whiteUsername, blackUsername, gameJSON, gameState, version "
+                        + "FROM gameData WHERE gameID IN (" + placeholders(chunk.size()) + ")";
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        stmt.setInt(i + 1, chunk.get(i));
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            found.put(rs.getInt("gameID"), new GameData(
+                                    rs.getInt("gameID"),
+                                    rs.getString("whiteUsername"),
+                                    rs.getString("blackUsername"),
+                                    rs.getString("gameName"),
+                                    readGameState(rs),
+                                    rs.getInt("version")
+                            ));
+                        }
+                    }
+                }
+            }
+        }
+        catch (SQLException e) {
+            throw new DataAccessException("Error retrieving games: " + e.getMessage());
+        }
+
+        for (Integer gameID : ids) {
+            if (!found.containsKey(gameID)) {
+                GameData archived = getArchivedGame(gameID);
+                if (archived != null) {
+                    found.put(gameID, archived);
+                }
+            }
+        }
+        return found;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
     @Override
     public GameData getGame(int gameID) throws DataAccessException {
         final String sql = """
-            SELECT gameID, gameName, whiteUsername, blackUsername, gameJSON
+            SELECT gameID, gameName, whiteUsername, blackUsername, gameJSON, gameState, version
             FROM gameData
             WHERE gameID = ?
         """;
@@ -207,15 +293,15 @@ public class DBDataAccess implements DataAccess {
             stmt.setInt(1, gameID);
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    String json = rs.getString("gameJSON");
-                    ChessGame chessGame = gson.fromJson(json, ChessGame.class);
+                    ChessGame chessGame = readGameState(rs);
 
                     return new GameData(
                             rs.getInt("gameID"),
                             rs.getString("whiteUsername"),
                             rs.getString("blackUsername"),
                             rs.getString("gameName"),
-                            chessGame
+                            chessGame,
+                            rs.getInt("version")
                     );
                 }
             }
@@ -224,31 +310,133 @@ public class DBDataAccess implements DataAccess {
         catch (SQLException e) {
             throw new DataAccessException("Error retrieving game by ID: " + e.getMessage());
         }
+        return getArchivedGame(gameID);
+    }
+
+    /**
+     * Slow path for games that {@link #archiveFinishedGames} has moved out of
+     * the hot table. Archived games never change, so a replica is good enough;
+     * a miss is retried on the primary in case the archive copy hasn't
+     * replicated yet.
+     */
+    private GameData getArchivedGame(int gameID) throws DataAccessException {
+        GameData game = readArchivedGame(gameID, true);
+        if (game == null && DatabaseManager.hasReplicas()) {
+            game = readArchivedGame(gameID, false);
+        }
+        return game;
+    }
+
+    private GameData readArchivedGame(int gameID, boolean fromReplica) throws DataAccessException {
+        final String sql = """
+            SELECT gameID, gameName, whiteUsername, blackUsername, gameState, version
+            FROM gameArchive
+            WHERE gameID = ?
+        """;
+
+        try (Connection conn = fromReplica ? DatabaseManager.getReadConnection() : DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, gameID);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return new GameData(
+                            rs.getInt("gameID"),
+                            rs.getString("whiteUsername"),
+                            rs.getString("blackUsername"),
+                            rs.getString("gameName"),
+                            ChessGameCodec.decode(rs.getBytes("gameState")),
+                            rs.getInt("version")
+                    );
+                }
+            }
+
+        }
+        catch (SQLException e) {
+            throw new DataAccessException("Error retrieving archived game: " + e.getMessage());
+        }
         return null;
     }
 
+    @Override
+    public int archiveFinishedGames(Duration gracePeriod, int limit) throws DataAccessException {
+        final String select = """
+            SELECT gameID FROM gameData
+            WHERE finishedAt IS NOT NULL AND finishedAt <= ? AND gameState IS NOT NULL
+            ORDER BY finishedAt
+            LIMIT ?
+            FOR UPDATE
+        """;
+        final String copy = """
+            INSERT INTO gameArchive (gameID, gameName, whiteUsername, blackUsername, gameState, version,
+                                     finishedAt, archivedAt)
+            SELECT gameID, gameName, whiteUsername, blackUsername, gameState, version, finishedAt, ?
+            FROM gameData
+            WHERE gameID = ?
+        """;
+        final String delete = "DELETE FROM gameData WHERE gameID = ?";
+
+        long now = System.currentTimeMillis();
+        try (Connection conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement selectStmt = conn.prepareStatement(select);
+                 PreparedStatement copyStmt = conn.prepareStatement(copy);
+                 PreparedStatement deleteStmt = conn.prepareStatement(delete)) {
+
+                selectStmt.setLong(1, now - gracePeriod.toMillis());
+                selectStmt.setInt(2, limit);
+                int archived = 0;
+                try (ResultSet rs = selectStmt.executeQuery()) {
+                    while (rs.next()) {
+                        int gameID = rs.getInt("gameID");
+                        copyStmt.setLong(1, now);
+                        copyStmt.setInt(2, gameID);
+                        copyStmt.addBatch();
+                        deleteStmt.setInt(1, gameID);
+                        deleteStmt.addBatch();
+                        archived++;
+                    }
+                }
+                if (archived > 0) {
+                    copyStmt.executeBatch();
+                    deleteStmt.executeBatch();
+                }
+                conn.commit();
+                return archived;
+            }
+            catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+        catch (SQLException e) {
+            throw new DataAccessException("Error archiving finished games: " + e.getMessage());
+        }
+    }
+
     @Override
     public List<GameData> listGames() throws DataAccessException {
         final String sql = """
-            SELECT gameID, gameName, whiteUsername, blackUsername, gameJSON
+            SELECT gameID, gameName, whiteUsername, blackUsername, gameJSON, gameState, version
             FROM gameData
         """;
         List<GameData> games = new ArrayList<>();
 
-        try (Connection conn = DatabaseManager.getConnection();
+        // The lobby list may be a few seconds stale; joins re-check the seat on the primary.
+        try (Connection conn = DatabaseManager.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
 
             while (rs.next()) {
-                String json = rs.getString("gameJSON");
-                ChessGame chessGame = gson.fromJson(json, ChessGame.class);
+                ChessGame chessGame = readGameState(rs);
 
                 GameData gd = new GameData(
                         rs.getInt("gameID"),
                         rs.getString("whiteUsername"),
                         rs.getString("blackUsername"),
                         rs.getString("gameName"),
-                        chessGame
+                        chessGame,
+                        rs.getInt("version")
                 );
                 games.add(gd);
             }
@@ -261,17 +449,54 @@ public class DBDataAccess implements DataAccess {
     }
 
     @Override
-    public void updateGame(GameData game) throws DataAccessException {
-        // Verify that the game exists.
-        GameData currentGame = getGame(game.gameID());
-        if (currentGame == null) {
-            throw new DataAccessException("Game ID does not exist: " + game.gameID());
+    public List<GameData> listGamesForPlayer(String username) throws DataAccessException {
+        // One branch per seat so each can use its own index; an OR would scan.
+        // The second branch skips games the first already returned.
+        final String sql = """
+            SELECT gameID, gameName, whiteUsername, blackUsername, gameJSON, gameState, version
+            FROM gameData
+            WHERE whiteUsername = ?
+            UNION ALL
+            SELECT gameID, gameName, whiteUsername, blackUsername, gameJSON, gameState, version
+            FROM gameData
+            WHERE blackUsername = ? AND NOT (whiteUsername <=> ?)
+        """;
+        List<GameData> games = new ArrayList<>();
+
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, username);
+            stmt.setString(2, username);
+            stmt.setString(3, username);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    games.add(new GameData(
+                            rs.getInt("gameID"),
+                            rs.getString("whiteUsername"),
+                            rs.getString("blackUsername"),
+                            rs.getString("gameName"),
+                            readGameState(rs),
+                            rs.getInt("version")
+                    ));
+                }
+            }
+
+        }
+        catch (SQLException e) {
+            throw new DataAccessException("Error listing games for player: " + e.getMessage());
         }
+        return games;
+    }
 
+    @Override
+    public void updateGame(GameData game) throws DataAccessException {
+        // Only applies if nobody else has written the game since it was read.
         final String sql = """
     UPDATE gameData
-    SET gameName = ?, whiteUsername = ?, blackUsername = ?, gameJSON = ?
-    WHERE gameID = ?
+    SET gameName = ?, whiteUsername = ?, blackUsername = ?, gameState = ?, gameJSON = NULL, version = version + 1,
+        finishedAt = COALESCE(finishedAt, ?)
+    WHERE gameID = ? AND version = ?
     """;
 
         try (Connection conn = DatabaseManager.getConnection();
@@ -281,24 +506,110 @@ public class DBDataAccess implements DataAccess {
             // Use the values provided in game data—even if they're null.
             stmt.setString(2, game.whiteUsername());
             stmt.setString(3, game.blackUsername());
-            String gameJson = gson.toJson(game.game());
-            stmt.setString(4, gameJson);
-            stmt.setInt(5, game.gameID());
+            stmt.setBytes(4, ChessGameCodec.encode(game.game()));
+            if (game.game().isGameOver()) {
+                stmt.setLong(5, System.currentTimeMillis());
+            }
+            else {
+                stmt.setNull(5, Types.BIGINT);
+            }
+            stmt.setInt(6, game.gameID());
+            stmt.setInt(7, game.version());
 
             int rowsUpdated = stmt.executeUpdate();
             if (rowsUpdated == 0) {
-                throw new DataAccessException("Game ID does not exist: " + game.gameID());
+                if (!gameExists(conn, game.gameID())) {
+                    throw new DataAccessException("Game ID does not exist: " + game.gameID());
+                }
+                throw new DataAccessException("Conflict: game " + game.gameID() + " was modified concurrently");
             }
         } catch (SQLException e) {
             throw new DataAccessException("Error updating game: " + e.getMessage());
         }
     }
 
+    /**
+     * Decodes the binary gameState column, falling back to the Gson gameJSON
+     * column for rows that have not been migrated yet.
+     */
+    private ChessGame readGameState(ResultSet rs) throws SQLException {
+        byte[] state = rs.getBytes("gameState");
+        if (state != null) {
+            return ChessGameCodec.decode(state);
+        }
+        return gson.fromJson(rs.getString("gameJSON"), ChessGame.class);
+    }
+
+    /**
+     * Rewrites up to {@code limit} rows still stored as gameJSON into the
+     * binary gameState column. Game versions are left alone since the game
+     * itself does not change, and rows written concurrently are skipped.
+     *
+     * @return the number of rows converted
+     */
+    public int migrateGameStates(int limit) throws DataAccessException {
+        final String select = "SELECT gameID, gameJSON FROM gameData WHERE gameState IS NULL LIMIT ?";
+        final String update = "UPDATE gameData SET gameState = ?, gameJSON = NULL WHERE gameID = ? AND gameState IS NULL";
+
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement selectStmt = conn.prepareStatement(select);
+             PreparedStatement updateStmt = conn.prepareStatement(update)) {
+
+            selectStmt.setInt(1, limit);
+            int batched = 0;
+            try (ResultSet rs = selectStmt.executeQuery()) {
+                while (rs.next()) {
+                    ChessGame game = gson.fromJson(rs.getString("gameJSON"), ChessGame.class);
+                    updateStmt.setBytes(1, ChessGameCodec.encode(game));
+                    updateStmt.setInt(2, rs.getInt("gameID"));
+                    updateStmt.addBatch();
+                    batched++;
+                }
+            }
+            if (batched > 0) {
+                updateStmt.executeBatch();
+            }
+            return batched;
+
+        }
+        catch (SQLException e) {
+            throw new DataAccessException("Error migrating game state: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean claimSeat(int gameID, ChessGame.TeamColor color, String username) throws DataAccessException {
+        final String sql = (color == ChessGame.TeamColor.WHITE)
+                ? "UPDATE gameData SET whiteUsername = ?, version = version + 1 WHERE gameID = ? AND whiteUsername IS NULL"
+                : "UPDATE gameData SET blackUsername = ?, version = version + 1 WHERE gameID = ? AND blackUsername IS NULL";
+
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, username);
+            stmt.setInt(2, gameID);
+            return stmt.executeUpdate() == 1;
+
+        }
+        catch (SQLException e) {
+            throw new DataAccessException("Error claiming seat: " + e.getMessage());
+        }
+    }
+
+    private boolean gameExists(Connection conn, int gameID) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT 1 FROM gameData WHERE gameID = ?")) {
+            stmt.setInt(1, gameID);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
     @Override
     public void createAuth(AuthData auth) throws DataAccessException {
         final String sql = """
-        INSERT INTO authData (authToken, username)
-        VALUES (?, ?)
+        INSERT INTO authData (authToken, username, expiresAt)
+        VALUES (?, ?, ?)
     """;
 
         try (Connection conn = DatabaseManager.getConnection();
@@ -306,6 +617,7 @@ public class DBDataAccess implements DataAccess {
 
             stmt.setString(1, auth.authToken());
             stmt.setString(2, auth.username());
+            stmt.setLong(3, System.currentTimeMillis() + authTokenTtl.toMillis());
             stmt.executeUpdate();
 
         }
@@ -322,13 +634,14 @@ public class DBDataAccess implements DataAccess {
         final String sql = """
             SELECT authToken, username
             FROM authData
-            WHERE authToken = ?
+            WHERE authToken = ? AND (expiresAt IS NULL OR expiresAt > ?)
         """;
 
         try (Connection conn = DatabaseManager.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, authToken);
+            stmt.setLong(2, System.currentTimeMillis());
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
                     return new AuthData(
@@ -362,14 +675,63 @@ public class DBDataAccess implements DataAccess {
         }
     }
 
+    @Override
+    public int deleteAuths(Collection<String> authTokens) throws DataAccessException {
+        List<String> tokens = new ArrayList<>(new LinkedHashSet<>(authTokens));
+        int deleted = 0;
+
+        try (Connection conn = DatabaseManager.getConnection()) {
+            for (int from = 0; from < tokens.size(); from += IN_LIST_LIMIT) {
+                List<String> chunk = tokens.subList(from, Math.min(tokens.size(), from + IN_LIST_LIMIT));
+                String sql = "DELETE FROM authData WHERE authToken IN (" + placeholders(chunk.size()) + ")";
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        stmt.setString(i + 1, chunk.get(i));
+                    }
+                    deleted += stmt.executeUpdate();
+                }
+            }
+        }
+        catch (SQLException e) {
+            throw new DataAccessException("Error deleting auth tokens: " + e.getMessage());
+        }
+        return deleted;
+    }
+
+    @Override
+    public int deleteExpiredAuths() throws DataAccessException {
+        final String sql = "DELETE FROM authData WHERE expiresAt <= ?";
+
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setLong(1, System.currentTimeMillis());
+            return stmt.executeUpdate();
+
+        }
+        catch (SQLException e) {
+            throw new DataAccessException("Error deleting expired auth tokens: " + e.getMessage());
+        }
+    }
+
     @Override
     public void clear() throws DataAccessException {
+        // TRUNCATE drops and recreates each table instead of deleting row by
+        // row. It refuses to run on a table referenced by a foreign key unless
+        // the checks are off for this session.
         try (Connection conn = DatabaseManager.getConnection();
              Statement stmt = conn.createStatement()) {
 
-            stmt.executeUpdate("DELETE FROM gameData");
-            stmt.executeUpdate("DELETE FROM authData");
-            stmt.executeUpdate("DELETE FROM userData");
+            stmt.execute("SET FOREIGN_KEY_CHECKS = 0");
+            try {
+                stmt.executeUpdate("TRUNCATE TABLE gameArchive");
+                stmt.executeUpdate("TRUNCATE TABLE gameData");
+                stmt.executeUpdate("TRUNCATE TABLE authData");
+                stmt.executeUpdate("TRUNCATE TABLE userData");
+            }
+            finally {
+                stmt.execute("SET FOREIGN_KEY_CHECKS = 1");
+            }
 
         }
         catch (SQLException e) {
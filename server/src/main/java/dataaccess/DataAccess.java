@@ -1,26 +1,81 @@
 package dataaccess;
 
+import chess.ChessGame;
 import model.AuthData;
 import model.GameData;
 import model.UserData;
 
+import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface DataAccess {
+    Duration DEFAULT_AUTH_TOKEN_TTL = Duration.ofHours(24);
+
     void createUser(UserData user) throws DataAccessException;
     UserData getUser(String username) throws DataAccessException;
 
-    int getMaxGameID() throws DataAccessException;
-
-    void createGame(GameData game) throws DataAccessException;
+    /**
+     * Stores a new game. A {@code gameID} of 0 or less lets the store allocate
+     * the ID; a positive one is used as given and must not already exist.
+     *
+     * @return the ID the game was stored under
+     */
+    int createGame(GameData game) throws DataAccessException;
     GameData getGame(int gameID) throws DataAccessException;
+
+    /**
+     * Stores several games in one round trip where the store allows it. IDs
+     * follow the same rules as {@link #createGame(GameData)}.
+     *
+     * @return the stored IDs, in the same order as {@code games}
+     */
+    List<Integer> createGames(List<GameData> games) throws DataAccessException;
+
+    /**
+     * Looks up several games at once. IDs that do not exist are left out of
+     * the result.
+     */
+    Map<Integer, GameData> getGames(Collection<Integer> gameIDs) throws DataAccessException;
     List<GameData> listGames() throws DataAccessException;
+
+    /**
+     * Games in which {@code username} holds either seat. Served from an index
+     * on the player columns, so the cost grows with that player's games rather
+     * than with every game in the store.
+     */
+    List<GameData> listGamesForPlayer(String username) throws DataAccessException;
     void updateGame(GameData game) throws DataAccessException;
 
+    /**
+     * Seats {@code username} as {@code color} only if that seat is still empty.
+     *
+     * @return true if the seat was claimed, false if it was already taken or
+     * the game does not exist
+     */
+    boolean claimSeat(int gameID, ChessGame.TeamColor color, String username) throws DataAccessException;
+
+    /**
+     * Moves up to {@code limit} games that finished more than
+     * {@code gracePeriod} ago out of the hot game store. Archived games no
+     * longer appear in {@link #listGames()} but {@link #getGame(int)} still
+     * finds them. Stores that keep everything in memory archive nothing.
+     *
+     * @return the number of games archived
+     */
+    int archiveFinishedGames(Duration gracePeriod, int limit) throws DataAccessException;
+
     void createAuth(AuthData auth) throws DataAccessException;
     AuthData getAuth(String authToken) throws DataAccessException;
     void deleteAuth(String authToken) throws DataAccessException;
 
+    /**
+     * @return the number of tokens that existed and were deleted
+     */
+    int deleteAuths(Collection<String> authTokens) throws DataAccessException;
+    int deleteExpiredAuths() throws DataAccessException;
+
     void clear() throws DataAccessException;
 
     void storeUserPassword(String username, String password) throws DataAccessException;
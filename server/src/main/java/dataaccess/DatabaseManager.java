@@ -1,13 +1,21 @@
 package dataaccess;
 
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 public class DatabaseManager {
     private static final String DATABASE_NAME;
     private static final String USER;
     private static final String PASSWORD;
     private static final String CONNECTION_URL;
+    private static final ReplicaRouter REPLICAS;
+    private static final long LAG_CHECK_INTERVAL_MILLIS;
+    // MySQL's ER_PARSE_ERROR, as opposed to other SQLState 42000 errors such as access denied.
+    private static final int PARSE_ERROR = 1064;
 
     /*
      * Load the database information for the db.properties file.
@@ -27,6 +35,18 @@ public class DatabaseManager {
                 var host = props.getProperty("db.host");
                 var port = Integer.parseInt(props.getProperty("db.port"));
                 CONNECTION_URL = String.format("jdbc:mysql://%s:%d", host, port);
+
+                // Optional comma-separated host:port list of read replicas.
+                List<String> replicas = new ArrayList<>();
+                for (String replica : props.getProperty("db.replicas", "").split(",")) {
+                    if (!replica.isBlank()) {
+                        replicas.add("jdbc:mysql://" + replica.trim());
+                    }
+                }
+                REPLICAS = new ReplicaRouter(replicas,
+                        Long.parseLong(props.getProperty("db.replica.maxLagSeconds", "5")),
+                        DatabaseManager::open, DatabaseManager::replicationLag);
+                LAG_CHECK_INTERVAL_MILLIS = Long.parseLong(props.getProperty("db.replica.lagCheckMillis", "5000"));
             }
         } catch (Exception ex) {
             throw new RuntimeException("unable to process db.properties. " + ex.getMessage());
@@ -70,4 +90,64 @@ public class DatabaseManager {
             throw new DataAccessException(e.getMessage());
         }
     }
+
+    /**
+     * A connection for reads that can tolerate a few seconds of staleness.
+     * Replicas are used round-robin, skipping any that the last lag check
+     * found unreachable or more than {@code db.replica.maxLagSeconds} behind.
+     * With no healthy replica, or none configured, this is the primary.
+     */
+    static Connection getReadConnection() throws DataAccessException {
+        Connection conn = REPLICAS.replicaConnection();
+        return conn != null ? conn : getConnection();
+    }
+
+    static boolean hasReplicas() {
+        return REPLICAS.hasReplicas();
+    }
+
+    /**
+     * Checks replica lag on {@code scheduler} every
+     * {@code db.replica.lagCheckMillis}, so reads never wait on the check.
+     * Does nothing when no replicas are configured.
+     */
+    public static void startReplicaMonitor(ScheduledExecutorService scheduler) {
+        if (REPLICAS.hasReplicas()) {
+            scheduler.scheduleWithFixedDelay(REPLICAS::probeAll, 0, LAG_CHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Seconds behind the primary, or null if replication is stopped. A server
+     * that reports no replication status at all is treated as caught up.
+     */
+    private static Long replicationLag(Connection conn) throws SQLException {
+        try {
+            return replicationLag(conn, "SHOW REPLICA STATUS", "Seconds_Behind_Source");
+        }
+        catch (SQLSyntaxErrorException e) {
+            if (e.getErrorCode() != PARSE_ERROR) {
+                throw e;
+            }
+            // MySQL before 8.0.22 only knows the old spelling.
+            return replicationLag(conn, "SHOW SLAVE STATUS", "Seconds_Behind_Master");
+        }
+    }
+
+    private static Long replicationLag(Connection conn, String query, String column) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(query)) {
+            if (!rs.next()) {
+                return 0L;
+            }
+            long lag = rs.getLong(column);
+            return rs.wasNull() ? null : lag;
+        }
+    }
+
+    private static Connection open(String url) throws SQLException {
+        var conn = DriverManager.getConnection(url, USER, PASSWORD);
+        conn.setCatalog(DATABASE_NAME);
+        return conn;
+    }
 }
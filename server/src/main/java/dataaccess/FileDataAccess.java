@@ -0,0 +1,429 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessGameCodec;
+import com.google.gson.JsonParseException;
+import model.AuthData;
+import model.GameData;
+import model.UserData;
+import service.PasswordHasher;
+import serialization.Serializer;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Embedded, file-backed store for single-node deployments. All state lives in
+ * memory and every change is appended to {@code chess.log} as one JSON line,
+ * which is replayed on startup. A torn final line from a crash is truncated.
+ * Once the log holds several times more records than live state it is
+ * rewritten as a snapshot.
+ * <p>
+ * Like {@link MemoryDataAccess}, the store never shares its {@link ChessGame}
+ * objects: writes keep a copy and reads hand out one.
+ */
+public class FileDataAccess implements DataAccess, Closeable {
+    static final String LOG_FILE = "chess.log";
+    private static final int COMPACT_MIN_RECORDS = 1000;
+    private static final int COMPACT_FACTOR = 4;
+
+    private final Map<String, UserData> users = new HashMap<>();
+    private final Map<Integer, GameData> games = new HashMap<>();
+    private final Map<String, AuthData> authTokens = new HashMap<>();
+    private final Map<String, Long> authExpiry = new HashMap<>();
+    private final PlayerIndex players = new PlayerIndex();
+    private final Path logPath;
+    private final Duration authTokenTtl;
+    private final boolean fsync;
+    private FileChannel log;
+    private int lastGameID;
+    private long logRecords;
+
+    private record Entry(String op, UserData user, GameData game, AuthData auth, Long expiresAt,
+                         List<String> tokens) {
+        Entry(String op, UserData user, GameData game, AuthData auth, Long expiresAt) {
+            this(op, user, game, auth, expiresAt, null);
+        }
+
+        /**
+         * Whether the entry has everything its op needs. A blank line or an
+         * empty object parses without error but isn't a usable record.
+         */
+        boolean isValid() {
+            if (op == null) {
+                return false;
+            }
+            return switch (op) {
+                case "user" -> user != null && user.username() != null;
+                case "game" -> game != null;
+                case "auth" -> auth != null && auth.authToken() != null && expiresAt != null;
+                case "deleteAuth" -> auth != null && auth.authToken() != null;
+                case "deleteAuths" -> tokens != null;
+                case "clear" -> true;
+                default -> false;
+            };
+        }
+    }
+
+    public FileDataAccess(Path directory, Duration authTokenTtl, boolean fsync) throws DataAccessException {
+        this.logPath = directory.resolve(LOG_FILE);
+        this.authTokenTtl = authTokenTtl;
+        this.fsync = fsync;
+        try {
+            Files.createDirectories(directory);
+            long validLength = replay();
+            log = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            if (log.size() > validLength) {
+                log.truncate(validLength);
+            }
+            log.position(validLength);
+        }
+        catch (IOException e) {
+            throw new DataAccessException("Unable to open data file " + logPath + ": " + e.getMessage());
+        }
+        compactIfNeeded();
+    }
+
+    private long replay() throws IOException {
+        if (!Files.exists(logPath)) {
+            return 0;
+        }
+        long validLength = 0;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(logPath))) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            long lineStart = 0;
+            long pos = 0;
+            int b;
+            while ((b = in.read()) != -1) {
+                pos++;
+                if (b != '\n') {
+                    line.write(b);
+                    continue;
+                }
+                Entry entry;
+                try {
+                    entry = Serializer.GSON.fromJson(line.toString(StandardCharsets.UTF_8), Entry.class);
+                }
+                catch (JsonParseException e) {
+                    entry = null;
+                }
+                if (entry == null || !entry.isValid()) {
+                    System.out.println("Ignoring corrupt record at offset " + lineStart + " in " + logPath);
+                    break;
+                }
+                apply(entry);
+                logRecords++;
+                validLength = pos;
+                lineStart = pos;
+                line.reset();
+            }
+        }
+        return validLength;
+    }
+
+    private void apply(Entry entry) {
+        switch (entry.op()) {
+            case "user" -> users.put(entry.user().username(), entry.user());
+            case "game" -> {
+                GameData previous = games.put(entry.game().gameID(), entry.game());
+                players.seatsChanged(entry.game().gameID(),
+                        previous == null ? null : previous.whiteUsername(),
+                        previous == null ? null : previous.blackUsername(),
+                        entry.game().whiteUsername(), entry.game().blackUsername());
+                lastGameID = Math.max(lastGameID, entry.game().gameID());
+            }
+            case "auth" -> {
+                authTokens.put(entry.auth().authToken(), entry.auth());
+                authExpiry.put(entry.auth().authToken(), entry.expiresAt());
+            }
+            case "deleteAuth" -> {
+                authTokens.remove(entry.auth().authToken());
+                authExpiry.remove(entry.auth().authToken());
+            }
+            case "deleteAuths" -> {
+                for (String token : entry.tokens()) {
+                    authTokens.remove(token);
+                    authExpiry.remove(token);
+                }
+            }
+            case "clear" -> {
+                users.clear();
+                games.clear();
+                players.clear();
+                authTokens.clear();
+                authExpiry.clear();
+            }
+            default -> throw new JsonParseException("Unknown log op: " + entry.op());
+        }
+    }
+
+    private void append(Entry entry) throws DataAccessException {
+        byte[] line = (Serializer.GSON.toJson(entry) + "\n").getBytes(StandardCharsets.UTF_8);
+        try {
+            ByteBuffer buf = ByteBuffer.wrap(line);
+            while (buf.hasRemaining()) {
+                log.write(buf);
+            }
+            if (fsync) {
+                log.force(false);
+            }
+        }
+        catch (IOException e) {
+            throw new DataAccessException("Error writing to data file: " + e.getMessage());
+        }
+        apply(entry);
+        logRecords++;
+        compactIfNeeded();
+    }
+
+    private void compactIfNeeded() throws DataAccessException {
+        long live = users.size() + games.size() + authTokens.size();
+        if (logRecords < COMPACT_MIN_RECORDS || logRecords < live * COMPACT_FACTOR) {
+            return;
+        }
+        Path tmp = logPath.resolveSibling(LOG_FILE + ".tmp");
+        try {
+            List<Entry> snapshot = new ArrayList<>();
+            users.values().forEach(u -> snapshot.add(new Entry("user", u, null, null, null)));
+            games.values().forEach(g -> snapshot.add(new Entry("game", null, g, null, null)));
+            authTokens.values().forEach(a -> snapshot.add(
+                    new Entry("auth", null, null, a, authExpiry.get(a.authToken()))));
+
+            try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                for (Entry entry : snapshot) {
+                    ByteBuffer buf = ByteBuffer.wrap((Serializer.GSON.toJson(entry) + "\n").getBytes(StandardCharsets.UTF_8));
+                    while (buf.hasRemaining()) {
+                        out.write(buf);
+                    }
+                }
+                out.force(true);
+            }
+            log.close();
+            Files.move(tmp, logPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log = FileChannel.open(logPath, StandardOpenOption.WRITE);
+            log.position(log.size());
+            logRecords = snapshot.size();
+        }
+        catch (IOException e) {
+            throw new DataAccessException("Error compacting data file: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void createUser(UserData user) throws DataAccessException {
+        if (users.containsKey(user.username())) {
+            throw new DataAccessException("User already exists");
+        }
+        append(new Entry("user", user, null, null, null));
+    }
+
+    @Override
+    public synchronized UserData getUser(String username) throws DataAccessException {
+        return users.get(username);
+    }
+
+    @Override
+    public synchronized int createGame(GameData game) throws DataAccessException {
+        int gameID = game.gameID();
+        if (gameID <= 0) {
+            gameID = lastGameID + 1;
+        }
+        else if (games.containsKey(gameID)) {
+            throw new DataAccessException("Game ID already exists: " + gameID);
+        }
+        append(new Entry("game", null, new GameData(gameID, game.whiteUsername(), game.blackUsername(),
+                game.gameName(), ChessGameCodec.copy(game.game()), game.version()), null, null));
+        return gameID;
+    }
+
+    @Override
+    public synchronized GameData getGame(int gameID) throws DataAccessException {
+        GameData game = games.get(gameID);
+        return game == null ? null : game.copy();
+    }
+
+    @Override
+    public synchronized List<Integer> createGames(List<GameData> games) throws DataAccessException {
+        GameBatch.checkIds(games, lastGameID, this.games::containsKey);
+        List<Integer> ids = new ArrayList<>(games.size());
+        for (GameData game : games) {
+            ids.add(createGame(game));
+        }
+        return ids;
+    }
+
+    @Override
+    public synchronized Map<Integer, GameData> getGames(Collection<Integer> gameIDs) throws DataAccessException {
+        Map<Integer, GameData> found = new HashMap<>();
+        for (Integer gameID : gameIDs) {
+            GameData game = games.get(gameID);
+            if (game != null) {
+                found.put(gameID, game.copy());
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public synchronized List<GameData> listGames() throws DataAccessException {
+        List<GameData> result = new ArrayList<>(games.size());
+        for (GameData game : games.values()) {
+            result.add(game.copy());
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized List<GameData> listGamesForPlayer(String username) throws DataAccessException {
+        List<GameData> result = new ArrayList<>();
+        for (Integer gameID : players.gamesFor(username)) {
+            result.add(games.get(gameID).copy());
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized void updateGame(GameData game) throws DataAccessException {
+        GameData current = games.get(game.gameID());
+        if (current == null) {
+            throw new DataAccessException("Game ID does not exist: " + game.gameID());
+        }
+        if (current.version() != game.version()) {
+            throw new DataAccessException("Conflict: game " + game.gameID() + " was modified concurrently");
+        }
+        append(new Entry("game", null, new GameData(game.gameID(), game.whiteUsername(), game.blackUsername(),
+                game.gameName(), ChessGameCodec.copy(game.game()), game.version() + 1), null, null));
+    }
+
+    @Override
+    public synchronized boolean claimSeat(int gameID, ChessGame.TeamColor color, String username)
+            throws DataAccessException {
+        GameData game = games.get(gameID);
+        if (game == null) {
+            return false;
+        }
+        String seat = (color == ChessGame.TeamColor.WHITE) ? game.whiteUsername() : game.blackUsername();
+        if (seat != null) {
+            return false;
+        }
+        append(new Entry("game", null, (color == ChessGame.TeamColor.WHITE)
+                ? new GameData(gameID, username, game.blackUsername(), game.gameName(), game.game(), game.version() + 1)
+                : new GameData(gameID, game.whiteUsername(), username, game.gameName(), game.game(), game.version() + 1),
+                null, null));
+        return true;
+    }
+
+    @Override
+    public int archiveFinishedGames(Duration gracePeriod, int limit) throws DataAccessException {
+        return 0;
+    }
+
+    @Override
+    public synchronized void createAuth(AuthData auth) throws DataAccessException {
+        if (authTokens.containsKey(auth.authToken())) {
+            throw new DataAccessException("authToken already exists");
+        }
+        append(new Entry("auth", null, null, auth, System.currentTimeMillis() + authTokenTtl.toMillis()));
+    }
+
+    @Override
+    public synchronized AuthData getAuth(String authToken) throws DataAccessException {
+        Long expiresAt = authExpiry.get(authToken);
+        if (expiresAt == null || expiresAt <= System.currentTimeMillis()) {
+            return null;
+        }
+        return authTokens.get(authToken);
+    }
+
+    @Override
+    public synchronized void deleteAuth(String authToken) throws DataAccessException {
+        AuthData auth = authTokens.get(authToken);
+        if (auth != null) {
+            append(new Entry("deleteAuth", null, null, auth, null));
+        }
+    }
+
+    @Override
+    public synchronized int deleteAuths(Collection<String> tokens) throws DataAccessException {
+        List<String> present = new ArrayList<>();
+        for (String authToken : tokens) {
+            if (authTokens.containsKey(authToken)) {
+                present.add(authToken);
+            }
+        }
+        appendDeletes(present);
+        return present.size();
+    }
+
+    @Override
+    public synchronized int deleteExpiredAuths() throws DataAccessException {
+        long now = System.currentTimeMillis();
+        List<String> expired = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : authExpiry.entrySet()) {
+            if (entry.getValue() <= now) {
+                expired.add(entry.getKey());
+            }
+        }
+        appendDeletes(expired);
+        return expired.size();
+    }
+
+    /**
+     * Deletes many tokens with one record and one fsync, rather than one of
+     * each per token while holding the store lock.
+     */
+    private void appendDeletes(List<String> tokens) throws DataAccessException {
+        if (!tokens.isEmpty()) {
+            append(new Entry("deleteAuths", null, null, null, null, tokens));
+        }
+    }
+
+    @Override
+    public synchronized void clear() throws DataAccessException {
+        append(new Entry("clear", null, null, null, null));
+    }
+
+    @Override
+    public void storeUserPassword(String username, String password) throws DataAccessException {
+        // Hashed before taking the lock so other writers don't wait on bcrypt.
+        String hashed = PasswordHasher.getDefault().hash(password);
+        synchronized (this) {
+            UserData user = users.get(username);
+            if (user == null) {
+                return;
+            }
+            append(new Entry("user", new UserData(user.username(), hashed, user.email()), null, null, null));
+        }
+    }
+
+    @Override
+    public boolean verifyUser(String username, String password) throws DataAccessException {
+        UserData user = getUser(username);
+        if (user == null) {
+            return false;
+        }
+        return PasswordHasher.getDefault().verify(password, user.password());
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        log.close();
+    }
+}
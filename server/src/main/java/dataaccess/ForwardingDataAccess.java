@@ -0,0 +1,119 @@
+package dataaccess;
+
+import chess.ChessGame;
+import model.AuthData;
+import model.GameData;
+import model.UserData;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Base class for {@link DataAccess} decorators. Every call is passed straight
+ * through to the wrapped implementation; subclasses override only what they
+ * need to intercept.
+ */
+public abstract class ForwardingDataAccess implements DataAccess {
+    protected final DataAccess delegate;
+
+    protected ForwardingDataAccess(DataAccess delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void createUser(UserData user) throws DataAccessException {
+        delegate.createUser(user);
+    }
+
+    @Override
+    public UserData getUser(String username) throws DataAccessException {
+        return delegate.getUser(username);
+    }
+
+    @Override
+    public int createGame(GameData game) throws DataAccessException {
+        return delegate.createGame(game);
+    }
+
+    @Override
+    public GameData getGame(int gameID) throws DataAccessException {
+        return delegate.getGame(gameID);
+    }
+
+    @Override
+    public List<Integer> createGames(List<GameData> games) throws DataAccessException {
+        return delegate.createGames(games);
+    }
+
+    @Override
+    public Map<Integer, GameData> getGames(Collection<Integer> gameIDs) throws DataAccessException {
+        return delegate.getGames(gameIDs);
+    }
+
+    @Override
+    public List<GameData> listGames() throws DataAccessException {
+        return delegate.listGames();
+    }
+
+    @Override
+    public List<GameData> listGamesForPlayer(String username) throws DataAccessException {
+        return delegate.listGamesForPlayer(username);
+    }
+
+    @Override
+    public void updateGame(GameData game) throws DataAccessException {
+        delegate.updateGame(game);
+    }
+
+    @Override
+    public boolean claimSeat(int gameID, ChessGame.TeamColor color, String username) throws DataAccessException {
+        return delegate.claimSeat(gameID, color, username);
+    }
+
+    @Override
+    public int archiveFinishedGames(Duration gracePeriod, int limit) throws DataAccessException {
+        return delegate.archiveFinishedGames(gracePeriod, limit);
+    }
+
+    @Override
+    public void createAuth(AuthData auth) throws DataAccessException {
+        delegate.createAuth(auth);
+    }
+
+    @Override
+    public AuthData getAuth(String authToken) throws DataAccessException {
+        return delegate.getAuth(authToken);
+    }
+
+    @Override
+    public void deleteAuth(String authToken) throws DataAccessException {
+        delegate.deleteAuth(authToken);
+    }
+
+    @Override
+    public int deleteAuths(Collection<String> authTokens) throws DataAccessException {
+        return delegate.deleteAuths(authTokens);
+    }
+
+    @Override
+    public int deleteExpiredAuths() throws DataAccessException {
+        return delegate.deleteExpiredAuths();
+    }
+
+    @Override
+    public void clear() throws DataAccessException {
+        delegate.clear();
+    }
+
+    @Override
+    public void storeUserPassword(String username, String password) throws DataAccessException {
+        delegate.storeUserPassword(username, password);
+    }
+
+    @Override
+    public boolean verifyUser(String username, String password) throws DataAccessException {
+        return delegate.verifyUser(username, password);
+    }
+}
@@ -0,0 +1,37 @@
+package dataaccess;
+
+import java.time.Duration;
+
+/**
+ * Periodic job that moves finished games out of the hot game table once
+ * their grace period has passed, one batch at a time.
+ */
+public class GameArchiver implements Runnable {
+    private final DataAccess dao;
+    private final Duration gracePeriod;
+    private final int batchSize;
+
+    public GameArchiver(DataAccess dao, Duration gracePeriod, int batchSize) {
+        this.dao = dao;
+        this.gracePeriod = gracePeriod;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void run() {
+        int total = 0;
+        try {
+            int archived;
+            do {
+                archived = dao.archiveFinishedGames(gracePeriod, batchSize);
+                total += archived;
+            } while (archived == batchSize && !Thread.currentThread().isInterrupted());
+        }
+        catch (DataAccessException e) {
+            System.out.println("Game archiving stopped: " + e.getMessage());
+        }
+        if (total > 0) {
+            System.out.println("Archived " + total + " finished games");
+        }
+    }
+}
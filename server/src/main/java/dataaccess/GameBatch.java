@@ -0,0 +1,35 @@
+package dataaccess;
+
+import model.GameData;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntPredicate;
+
+/**
+ * Up-front validation of a {@link DataAccess#createGames} batch for stores
+ * that allocate IDs themselves. IDs are worked out in batch order exactly as
+ * {@code createGame} would assign them, so a batch whose auto-assigned ID
+ * collides with a later explicit one is rejected before anything is written.
+ */
+final class GameBatch {
+
+    private GameBatch() { }
+
+    /**
+     * @param lastGameID the highest ID allocated so far
+     * @param exists     whether an ID is already taken in the store
+     */
+    static void checkIds(List<GameData> batch, int lastGameID, IntPredicate exists) throws DataAccessException {
+        Set<Integer> assigned = new HashSet<>();
+        int last = lastGameID;
+        for (GameData game : batch) {
+            int gameID = game.gameID() > 0 ? game.gameID() : last + 1;
+            if (exists.test(gameID) || !assigned.add(gameID)) {
+                throw new DataAccessException("Game ID already exists: " + gameID);
+            }
+            last = Math.max(last, gameID);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package dataaccess;
+
+/**
+ * Background job that converts legacy gameJSON rows to the binary gameState
+ * column in small batches, so startup is not blocked and each batch holds
+ * its row locks only briefly.
+ */
+public class GameStateMigrator implements Runnable {
+    private final DBDataAccess db;
+    private final int batchSize;
+
+    public GameStateMigrator(DBDataAccess db, int batchSize) {
+        this.db = db;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void run() {
+        int total = 0;
+        try {
+            int converted;
+            do {
+                converted = db.migrateGameStates(batchSize);
+                total += converted;
+            } while (converted > 0 && !Thread.currentThread().isInterrupted());
+        }
+        catch (DataAccessException e) {
+            System.out.println("Game state migration stopped: " + e.getMessage());
+        }
+        if (total > 0) {
+            System.out.println("Migrated " + total + " games to binary game state");
+        }
+    }
+}
@@ -0,0 +1,511 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessGameCodec;
+import journal.Journal;
+import model.GameData;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Event-sourced game storage. Every accepted game command (create, join,
+ * move, resign, leave) is appended to a {@link Journal}, and the current
+ * games are rebuilt on startup from the latest snapshot plus the events
+ * after it. Users and auth tokens are passed to the wrapped store.
+ *
+ * <p>Writers take a short lock to append and apply an event in the same
+ * order, then wait for the journal's group commit outside the lock.
+ */
+public class JournalDataAccess extends ForwardingDataAccess implements Closeable {
+    static final byte CREATE = 1;
+    static final byte JOIN = 2;
+    static final byte MOVE = 3;
+    static final byte RESIGN = 4;
+    static final byte LEAVE = 5;
+    static final byte UPDATE = 6;
+    static final byte CLEAR = 7;
+
+    private static final int SNAPSHOT_MAGIC = 0x43485331;
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+
+    private record StoredGame(int gameID, String whiteUsername, String blackUsername, String gameName,
+                              byte[] state, int version) {
+        GameData toGameData() {
+            return new GameData(gameID, whiteUsername, blackUsername, gameName, ChessGameCodec.decode(state), version);
+        }
+    }
+
+    private final ConcurrentHashMap<Integer, StoredGame> games = new ConcurrentHashMap<>();
+    private final PlayerIndex players = new PlayerIndex();
+    private final Object writeLock = new Object();
+    private final Path dir;
+    private final int snapshotEvery;
+    private final AtomicBoolean snapshotting = new AtomicBoolean();
+    private final Journal journal;
+    private int lastGameID;
+    private volatile long lastSnapshotSeq;
+
+    public JournalDataAccess(DataAccess accounts, Path dir, int segmentBytes, Duration groupCommitWindow,
+                             int snapshotEvery) throws DataAccessException {
+        super(accounts);
+        this.dir = dir;
+        this.snapshotEvery = snapshotEvery;
+        try {
+            Files.createDirectories(dir);
+            lastSnapshotSeq = loadSnapshot();
+            journal = Journal.open(dir, segmentBytes, groupCommitWindow, lastSnapshotSeq,
+                    r -> apply(r.type(), r.payload()));
+        }
+        catch (IOException | UncheckedIOException e) {
+            throw new DataAccessException("Unable to recover game journal in " + dir + ": " + e.getMessage());
+        }
+    }
+
+    public int gameCount() {
+        return games.size();
+    }
+
+    @Override
+    public int createGame(GameData game) throws DataAccessException {
+        long seq;
+        int gameID;
+        synchronized (writeLock) {
+            gameID = recordCreate(game);
+            seq = journal.lastSeq();
+        }
+        commit(seq);
+        return gameID;
+    }
+
+    @Override
+    public List<Integer> createGames(List<GameData> newGames) throws DataAccessException {
+        List<Integer> ids = new ArrayList<>(newGames.size());
+        long seq;
+        synchronized (writeLock) {
+            // Check every ID, assigned ones included, so a bad batch records nothing.
+            GameBatch.checkIds(newGames, lastGameID, games::containsKey);
+            for (GameData game : newGames) {
+                ids.add(recordCreate(game));
+            }
+            seq = journal.lastSeq();
+        }
+        // One durability wait covers the whole batch.
+        commit(seq);
+        return ids;
+    }
+
+    private int recordCreate(GameData game) throws DataAccessException {
+        int gameID = game.gameID();
+        if (gameID <= 0) {
+            gameID = lastGameID + 1;
+        }
+        else if (games.containsKey(gameID)) {
+            throw new DataAccessException("Game ID already exists: " + gameID);
+        }
+        StoredGame created = new StoredGame(gameID, game.whiteUsername(), game.blackUsername(), game.gameName(),
+                ChessGameCodec.encode(game.game()), game.version());
+        record(CREATE, payload(out -> writeGame(out, created)));
+        return gameID;
+    }
+
+    @Override
+    public GameData getGame(int gameID) throws DataAccessException {
+        StoredGame game = games.get(gameID);
+        return game == null ? null : game.toGameData();
+    }
+
+    @Override
+    public Map<Integer, GameData> getGames(Collection<Integer> gameIDs) throws DataAccessException {
+        Map<Integer, GameData> found = new HashMap<>();
+        for (Integer gameID : gameIDs) {
+            StoredGame game = games.get(gameID);
+            if (game != null) {
+                found.put(gameID, game.toGameData());
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public List<GameData> listGames() throws DataAccessException {
+        List<GameData> result = new ArrayList<>(games.size());
+        for (StoredGame game : games.values()) {
+            result.add(game.toGameData());
+        }
+        return result;
+    }
+
+    @Override
+    public List<GameData> listGamesForPlayer(String username) throws DataAccessException {
+        List<GameData> result = new ArrayList<>();
+        for (Integer gameID : players.gamesFor(username)) {
+            StoredGame game = games.get(gameID);
+            if (game != null && (username.equals(game.whiteUsername()) || username.equals(game.blackUsername()))) {
+                result.add(game.toGameData());
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void updateGame(GameData game) throws DataAccessException {
+        long seq;
+        synchronized (writeLock) {
+            StoredGame current = games.get(game.gameID());
+            if (current == null) {
+                throw new DataAccessException("Game ID does not exist: " + game.gameID());
+            }
+            if (current.version() != game.version()) {
+                throw new DataAccessException("Conflict: game " + game.gameID() + " was modified concurrently");
+            }
+            seq = recordUpdate(current, game);
+        }
+        commit(seq);
+    }
+
+    /**
+     * Records an update as the most specific command it matches, falling back
+     * to a full copy of the game when it matches none of them.
+     */
+    private long recordUpdate(StoredGame current, GameData game) throws DataAccessException {
+        int id = current.gameID();
+        byte[] state = ChessGameCodec.encode(game.game());
+        boolean sameName = current.gameName().equals(game.gameName());
+        boolean sameSeats = equal(current.whiteUsername(), game.whiteUsername())
+                && equal(current.blackUsername(), game.blackUsername());
+
+        if (sameName && sameSeats) {
+            ChessGame resigned = ChessGameCodec.decode(current.state());
+            resigned.setGameOver(true);
+            if (!Arrays.equals(current.state(), state) && Arrays.equals(ChessGameCodec.encode(resigned), state)) {
+                return record(RESIGN, payload(out -> out.writeInt(id)));
+            }
+            return record(MOVE, payload(out -> {
+                out.writeInt(id);
+                out.write(state);
+            }));
+        }
+        if (sameName && Arrays.equals(current.state(), state)) {
+            if (current.whiteUsername() != null && game.whiteUsername() == null
+                    && equal(current.blackUsername(), game.blackUsername())) {
+                return record(LEAVE, payload(out -> {
+                    out.writeInt(id);
+                    out.writeByte(ChessGame.TeamColor.WHITE.ordinal());
+                }));
+            }
+            if (current.blackUsername() != null && game.blackUsername() == null
+                    && equal(current.whiteUsername(), game.whiteUsername())) {
+                return record(LEAVE, payload(out -> {
+                    out.writeInt(id);
+                    out.writeByte(ChessGame.TeamColor.BLACK.ordinal());
+                }));
+            }
+        }
+        return record(UPDATE, payload(out -> writeGame(out, new StoredGame(id, game.whiteUsername(),
+                game.blackUsername(), game.gameName(), state, current.version()))));
+    }
+
+    @Override
+    public boolean claimSeat(int gameID, ChessGame.TeamColor color, String username) throws DataAccessException {
+        long seq;
+        synchronized (writeLock) {
+            StoredGame game = games.get(gameID);
+            if (game == null) {
+                return false;
+            }
+            String seat = (color == ChessGame.TeamColor.WHITE) ? game.whiteUsername() : game.blackUsername();
+            if (seat != null) {
+                return false;
+            }
+            seq = record(JOIN, payload(out -> {
+                out.writeInt(gameID);
+                out.writeByte(color.ordinal());
+                out.writeUTF(username);
+            }));
+        }
+        commit(seq);
+        return true;
+    }
+
+    @Override
+    public void clear() throws DataAccessException {
+        super.clear();
+        long seq;
+        synchronized (writeLock) {
+            seq = record(CLEAR, new byte[0]);
+        }
+        commit(seq);
+    }
+
+    /**
+     * Appends an event and applies it to the in-memory games. Must be called
+     * while holding {@code writeLock} so the journal and memory agree on order.
+     */
+    private long record(byte type, byte[] payload) throws DataAccessException {
+        try {
+            long seq = journal.append(type, payload);
+            apply(type, payload);
+            return seq;
+        }
+        catch (IOException e) {
+            throw new DataAccessException("Error writing to game journal: " + e.getMessage());
+        }
+    }
+
+    private void commit(long seq) throws DataAccessException {
+        try {
+            journal.awaitDurable(seq);
+        }
+        catch (IOException e) {
+            throw new DataAccessException("Error writing to game journal: " + e.getMessage());
+        }
+        if (seq - lastSnapshotSeq >= snapshotEvery && snapshotting.compareAndSet(false, true)) {
+            try {
+                snapshot();
+            }
+            catch (IOException e) {
+                System.out.println("Failed to write game snapshot: " + e.getMessage());
+            }
+            finally {
+                snapshotting.set(false);
+            }
+        }
+    }
+
+    private void apply(byte type, byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            switch (type) {
+                case CREATE, UPDATE -> {
+                    StoredGame game = readGame(in);
+                    StoredGame previous = games.get(game.gameID());
+                    int version = (type == UPDATE && previous != null) ? previous.version() + 1 : game.version();
+                    store(new StoredGame(game.gameID(), game.whiteUsername(),
+                            game.blackUsername(), game.gameName(), game.state(), version));
+                    lastGameID = Math.max(lastGameID, game.gameID());
+                }
+                case JOIN -> {
+                    StoredGame game = games.get(in.readInt());
+                    boolean white = in.readByte() == ChessGame.TeamColor.WHITE.ordinal();
+                    String username = in.readUTF();
+                    store(new StoredGame(game.gameID(),
+                            white ? username : game.whiteUsername(), white ? game.blackUsername() : username,
+                            game.gameName(), game.state(), game.version() + 1));
+                }
+                case MOVE -> {
+                    StoredGame game = games.get(in.readInt());
+                    store(new StoredGame(game.gameID(), game.whiteUsername(),
+                            game.blackUsername(), game.gameName(), readState(in),
+                            game.version() + 1));
+                }
+                case RESIGN -> {
+                    StoredGame game = games.get(in.readInt());
+                    ChessGame state = ChessGameCodec.decode(game.state());
+                    state.setGameOver(true);
+                    store(new StoredGame(game.gameID(), game.whiteUsername(),
+                            game.blackUsername(), game.gameName(), ChessGameCodec.encode(state), game.version() + 1));
+                }
+                case LEAVE -> {
+                    StoredGame game = games.get(in.readInt());
+                    boolean white = in.readByte() == ChessGame.TeamColor.WHITE.ordinal();
+                    store(new StoredGame(game.gameID(),
+                            white ? null : game.whiteUsername(), white ? game.blackUsername() : null,
+                            game.gameName(), game.state(), game.version() + 1));
+                }
+                case CLEAR -> {
+                    games.clear();
+                    players.clear();
+                }
+                default -> throw new IOException("Unknown journal event type " + type);
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void store(StoredGame game) {
+        StoredGame previous = games.put(game.gameID(), game);
+        players.seatsChanged(game.gameID(),
+                previous == null ? null : previous.whiteUsername(),
+                previous == null ? null : previous.blackUsername(),
+                game.whiteUsername(), game.blackUsername());
+    }
+
+    private interface PayloadWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private static byte[] payload(PayloadWriter writer) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writer.write(out);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeGame(DataOutputStream out, StoredGame game) throws IOException {
+        out.writeInt(game.gameID());
+        out.writeInt(game.version());
+        out.writeUTF(game.gameName());
+        writeNullable(out, game.whiteUsername());
+        writeNullable(out, game.blackUsername());
+        out.write(game.state());
+    }
+
+    private static StoredGame readGame(DataInputStream in) throws IOException {
+        int gameID = in.readInt();
+        int version = in.readInt();
+        String name = in.readUTF();
+        String white = readNullable(in);
+        String black = readNullable(in);
+        byte[] state = readState(in);
+        return new StoredGame(gameID, white, black, name, state, version);
+    }
+
+    /**
+     * Reads one codec-encoded game, whose length depends on its version byte.
+     */
+    private static byte[] readState(DataInputStream in) throws IOException {
+        byte version = in.readByte();
+        byte[] state = new byte[ChessGameCodec.encodedLength(version)];
+        state[0] = version;
+        in.readFully(state, 1, state.length - 1);
+        return state;
+    }
+
+    private static void writeNullable(DataOutputStream out, String s) throws IOException {
+        out.writeBoolean(s != null);
+        if (s != null) {
+            out.writeUTF(s);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static boolean equal(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    /**
+     * Writes every game to {@code snapshot-<seq>.snap} and drops the journal
+     * segments it makes redundant.
+     */
+    private void snapshot() throws IOException {
+        List<StoredGame> copy;
+        long seq;
+        int nextID;
+        synchronized (writeLock) {
+            copy = new ArrayList<>(games.values());
+            seq = journal.lastSeq();
+            nextID = lastGameID;
+        }
+        journal.awaitDurable(seq);
+
+        Path target = dir.resolve(String.format("%s%020d.snap", SNAPSHOT_PREFIX, seq));
+        Path tmp = dir.resolve(target.getFileName() + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(tmp.toFile())) {
+            CRC32 crc = new CRC32();
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                    new BufferedOutputStream(file), crc));
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeLong(seq);
+            out.writeInt(nextID);
+            out.writeInt(copy.size());
+            for (StoredGame game : copy) {
+                writeGame(out, game);
+            }
+            out.flush();
+            new DataOutputStream(file).writeLong(crc.getValue());
+            file.getFD().sync();
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        lastSnapshotSeq = seq;
+
+        for (Path old : snapshotFiles()) {
+            if (!old.equals(target)) {
+                Files.deleteIfExists(old);
+            }
+        }
+        journal.deleteSegmentsThrough(seq);
+    }
+
+    /**
+     * Loads the newest snapshot that passes its checksum and returns the
+     * journal sequence number it covers, or 0 if there is none.
+     */
+    private long loadSnapshot() throws IOException {
+        List<Path> snapshots = snapshotFiles();
+        for (int i = snapshots.size() - 1; i >= 0; i--) {
+            byte[] bytes = Files.readAllBytes(snapshots.get(i));
+            if (bytes.length < 8) {
+                continue;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(bytes, 0, bytes.length - 8);
+            long stored = new DataInputStream(new ByteArrayInputStream(bytes, bytes.length - 8, 8)).readLong();
+            if (stored != crc.getValue()) {
+                System.out.println("Skipping corrupt game snapshot " + snapshots.get(i));
+                continue;
+            }
+            try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 0, bytes.length - 8))) {
+                if (in.readInt() != SNAPSHOT_MAGIC) {
+                    continue;
+                }
+                long seq = in.readLong();
+                lastGameID = in.readInt();
+                int count = in.readInt();
+                for (int n = 0; n < count; n++) {
+                    StoredGame game = readGame(in);
+                    store(game);
+                }
+                return seq;
+            }
+        }
+        return 0;
+    }
+
+    private List<Path> snapshotFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.getFileName().toString().startsWith(SNAPSHOT_PREFIX)
+                            && p.getFileName().toString().endsWith(".snap"))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        journal.close();
+        if (delegate instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+}
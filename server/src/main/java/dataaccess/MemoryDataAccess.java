@@ -1,29 +1,53 @@
 package dataaccess;
 
+import chess.ChessGame;
+import chess.ChessGameCodec;
 import model.AuthData;
 import model.GameData;
 import model.UserData;
+import service.PasswordHasher;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * In-memory store that is safe to share across Jetty's request threads. Games
+ * are replaced with compare-and-set on the record, so concurrent writers to
+ * one game never block writers to another and stale versions are rejected.
+ * <p>
+ * Stored {@link ChessGame}s never leave the store: writes keep a copy and
+ * reads hand out one, so a caller changing its game cannot alter the stored
+ * state behind the version check.
+ */
 public class MemoryDataAccess implements DataAccess {
-    private final Map<String, UserData> users = new HashMap<>();
-    private final Map<Integer, GameData> games = new HashMap<>();
-    private final Map<String, AuthData> authTokens = new HashMap<>();
+    private record Session(AuthData auth, long expiresAt) { }
 
-    public int getMaxGameID() throws DataAccessException {
-        return 0;
+    private final Map<String, UserData> users = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, GameData> games = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Session> sessions = new ConcurrentHashMap<>();
+    private final AtomicInteger lastGameID = new AtomicInteger();
+    private final PlayerIndex players = new PlayerIndex();
+    private final Duration authTokenTtl;
+
+    public MemoryDataAccess() {
+        this(DEFAULT_AUTH_TOKEN_TTL);
+    }
+
+    public MemoryDataAccess(Duration authTokenTtl) {
+        this.authTokenTtl = authTokenTtl;
     }
 
     @Override
     public void createUser(UserData user) throws DataAccessException {
-        if (users.containsKey(user.username())) {
+        if (users.putIfAbsent(user.username(), user) != null) {
             throw new DataAccessException("User already exists");
         }
-        users.put(user.username(), user);
     }
 
     @Override
@@ -33,44 +57,194 @@ public class MemoryDataAccess implements DataAccess {
 
 
     @Override
-    public void createGame(GameData game) throws DataAccessException {
-        games.put(game.gameID(), game);
+    public int createGame(GameData game) throws DataAccessException {
+        int gameID = game.gameID();
+        if (gameID <= 0) {
+            gameID = lastGameID.incrementAndGet();
+        }
+        GameData stored = new GameData(gameID, game.whiteUsername(), game.blackUsername(),
+                game.gameName(), ChessGameCodec.copy(game.game()), game.version());
+        boolean[] created = new boolean[1];
+        games.computeIfAbsent(gameID, id -> {
+            created[0] = true;
+            players.seatsChanged(id, null, null, stored.whiteUsername(), stored.blackUsername());
+            return stored;
+        });
+        if (!created[0]) {
+            throw new DataAccessException("Game ID already exists: " + gameID);
+        }
+        lastGameID.accumulateAndGet(gameID, Math::max);
+        return gameID;
     }
 
     @Override
     public GameData getGame(int gameID) throws DataAccessException {
-        return games.get(gameID);
+        GameData game = games.get(gameID);
+        return game == null ? null : game.copy();
+    }
+
+    @Override
+    public List<Integer> createGames(List<GameData> games) throws DataAccessException {
+        GameBatch.checkIds(games, lastGameID.get(), this.games::containsKey);
+        List<Integer> ids = new ArrayList<>(games.size());
+        try {
+            for (GameData game : games) {
+                ids.add(createGame(game));
+            }
+        }
+        catch (DataAccessException e) {
+            // A concurrent createGame took an ID after the check; undo the
+            // part of the batch already stored, as the database would.
+            for (int gameID : ids) {
+                this.games.computeIfPresent(gameID, (id, stored) -> {
+                    players.seatsChanged(id, stored.whiteUsername(), stored.blackUsername(), null, null);
+                    return null;
+                });
+            }
+            throw e;
+        }
+        return ids;
+    }
+
+    @Override
+    public Map<Integer, GameData> getGames(Collection<Integer> gameIDs) throws DataAccessException {
+        Map<Integer, GameData> found = new HashMap<>();
+        for (Integer gameID : gameIDs) {
+            GameData game = games.get(gameID);
+            if (game != null) {
+                found.put(gameID, game.copy());
+            }
+        }
+        return found;
     }
 
     @Override
     public List<GameData> listGames() throws DataAccessException {
-        return new ArrayList<>(games.values());
+        List<GameData> result = new ArrayList<>(games.size());
+        for (GameData game : games.values()) {
+            result.add(game.copy());
+        }
+        return result;
+    }
+
+    @Override
+    public List<GameData> listGamesForPlayer(String username) throws DataAccessException {
+        List<GameData> result = new ArrayList<>();
+        for (Integer gameID : players.gamesFor(username)) {
+            GameData game = games.get(gameID);
+            if (game != null && (username.equals(game.whiteUsername()) || username.equals(game.blackUsername()))) {
+                result.add(game.copy());
+            }
+        }
+        return result;
     }
 
     @Override
     public void updateGame(GameData game) throws DataAccessException {
-        if (!games.containsKey(game.gameID())) {
-            throw new DataAccessException("Game ID does not exist: " + game.gameID());
+        GameData next = new GameData(game.gameID(), game.whiteUsername(), game.blackUsername(),
+                game.gameName(), ChessGameCodec.copy(game.game()), game.version() + 1);
+        while (true) {
+            GameData current = games.get(game.gameID());
+            if (current == null) {
+                throw new DataAccessException("Game ID does not exist: " + game.gameID());
+            }
+            if (current.version() != game.version()) {
+                throw new DataAccessException("Conflict: game " + game.gameID() + " was modified concurrently");
+            }
+            if (replaceSame(game.gameID(), current, next)) {
+                return;
+            }
         }
-        games.put(game.gameID(), game);
+    }
+
+    @Override
+    public boolean claimSeat(int gameID, ChessGame.TeamColor color, String username)
+            throws DataAccessException {
+        while (true) {
+            GameData game = games.get(gameID);
+            if (game == null) {
+                return false;
+            }
+            String seat = (color == ChessGame.TeamColor.WHITE) ? game.whiteUsername() : game.blackUsername();
+            if (seat != null) {
+                return false;
+            }
+            GameData claimed = (color == ChessGame.TeamColor.WHITE)
+                    ? new GameData(gameID, username, game.blackUsername(), game.gameName(), game.game(), game.version() + 1)
+                    : new GameData(gameID, game.whiteUsername(), username, game.gameName(), game.game(), game.version() + 1);
+            if (replaceSame(gameID, game, claimed)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Compare-and-set on object identity. {@link ConcurrentHashMap#replace(Object, Object, Object)}
+     * compares with equals, which would accept a different record holding equal values.
+     * The player index is updated inside the same per-game critical section.
+     */
+    private boolean replaceSame(int gameID, GameData expected, GameData next) {
+        boolean[] swapped = new boolean[1];
+        games.computeIfPresent(gameID, (id, current) -> {
+            if (current != expected) {
+                return current;
+            }
+            swapped[0] = true;
+            players.seatsChanged(gameID, current.whiteUsername(), current.blackUsername(),
+                    next.whiteUsername(), next.blackUsername());
+            return next;
+        });
+        return swapped[0];
+    }
+
+    @Override
+    public int archiveFinishedGames(Duration gracePeriod, int limit) throws DataAccessException {
+        return 0;
     }
 
     @Override
     public void createAuth(AuthData auth) throws DataAccessException {
-        if (authTokens.containsKey(auth.authToken())) {
+        Session session = new Session(auth, System.currentTimeMillis() + authTokenTtl.toMillis());
+        if (sessions.putIfAbsent(auth.authToken(), session) != null) {
             throw new DataAccessException("authToken already exists");
         }
-        authTokens.put(auth.authToken(), auth);
     }
 
     @Override
     public AuthData getAuth(String authToken) throws DataAccessException {
-        return authTokens.get(authToken);
+        Session session = sessions.get(authToken);
+        if (session == null || session.expiresAt() <= System.currentTimeMillis()) {
+            return null;
+        }
+        return session.auth();
     }
 
     @Override
     public void deleteAuth(String authToken) throws DataAccessException {
-        authTokens.remove(authToken);
+        sessions.remove(authToken);
+    }
+
+    @Override
+    public int deleteAuths(Collection<String> authTokens) throws DataAccessException {
+        int removed = 0;
+        for (String authToken : authTokens) {
+            if (sessions.remove(authToken) != null) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    @Override
+    public int deleteExpiredAuths() throws DataAccessException {
+        long now = System.currentTimeMillis();
+        int removed = 0;
+        for (Map.Entry<String, Session> entry : sessions.entrySet()) {
+            if (entry.getValue().expiresAt() <= now && sessions.remove(entry.getKey(), entry.getValue())) {
+                removed++;
+            }
+        }
+        return removed;
     }
 
 
@@ -78,16 +252,22 @@ public class MemoryDataAccess implements DataAccess {
     public void clear() throws DataAccessException {
         users.clear();
         games.clear();
-        authTokens.clear();
+        players.clear();
+        sessions.clear();
     }
 
     @Override
     public void storeUserPassword(String username, String password) throws DataAccessException {
-
+        String hashed = PasswordHasher.getDefault().hash(password);
+        users.computeIfPresent(username, (name, user) -> new UserData(name, hashed, user.email()));
     }
 
     @Override
     public boolean verifyUser(String username, String password) throws DataAccessException {
-        return true;
+        UserData user = users.get(username);
+        if (user == null) {
+            return false;
+        }
+        return PasswordHasher.getDefault().verify(password, user.password());
     }
 }
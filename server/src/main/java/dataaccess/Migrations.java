@@ -0,0 +1,91 @@
+package dataaccess;
+
+import dataaccess.SchemaMigrator.Migration;
+
+import java.util.List;
+
+import static dataaccess.SchemaMigrator.*;
+
+/**
+ * The schema history for {@link DBDataAccess}, oldest first. Append new
+ * migrations to the end and never edit one that has shipped.
+ */
+final class Migrations {
+
+    private Migrations() { }
+
+    static final List<Migration> ALL = List.of(
+            new Migration(1, "create base tables", sql(
+                    """
+                    CREATE TABLE IF NOT EXISTS userData (
+                        username      VARCHAR(50) NOT NULL,
+                        passwordHash  VARCHAR(200) NOT NULL,
+                        email         VARCHAR(100),
+                        PRIMARY KEY (username)
+                    ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci
+                    """,
+                    """
+                    CREATE TABLE IF NOT EXISTS authData (
+                        authToken VARCHAR(100) PRIMARY KEY,
+                        username  VARCHAR(50) NOT NULL,
+                        expiresAt BIGINT,
+                        FOREIGN KEY (username) REFERENCES userData(username)
+                        ON DELETE CASCADE
+                        ON UPDATE CASCADE
+                    ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci
+                    """,
+                    """
+                    CREATE TABLE IF NOT EXISTS gameData (
+                        gameID INT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+                        gameName VARCHAR(100),
+                        whiteUsername VARCHAR(50),
+                        blackUsername VARCHAR(50),
+                        gameJSON TEXT,
+                        gameState BLOB,
+                        version INT NOT NULL DEFAULT 0,
+                        finishedAt BIGINT
+                    ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci
+                    """,
+                    """
+                    CREATE TABLE IF NOT EXISTS gameArchive (
+                        gameID INT NOT NULL PRIMARY KEY,
+                        gameName VARCHAR(100),
+                        whiteUsername VARCHAR(50),
+                        blackUsername VARCHAR(50),
+                        gameState BLOB NOT NULL,
+                        version INT NOT NULL,
+                        finishedAt BIGINT NOT NULL,
+                        archivedAt BIGINT NOT NULL
+                    ) ENGINE=InnoDB ROW_FORMAT=COMPRESSED DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci
+                    """)),
+
+            // Databases created before this runner existed may have older
+            // table shapes that CREATE TABLE IF NOT EXISTS leaves alone.
+            new Migration(2, "upgrade tables created before versioned migrations", conn -> {
+                addColumnIfMissing(conn, "authData", "expiresAt", "BIGINT");
+                addColumnIfMissing(conn, "gameData", "version", "INT NOT NULL DEFAULT 0");
+                makeAutoIncrement(conn, "gameData", "gameID");
+                addColumnIfMissing(conn, "gameData", "gameState", "BLOB");
+                makeNullable(conn, "gameData", "gameJSON", "TEXT");
+                addColumnIfMissing(conn, "gameData", "finishedAt", "BIGINT");
+            }),
+
+            // status is derived from the seats and finishedAt, so it can never
+            // disagree with them; updatedAt is maintained by MySQL.
+            new Migration(3, "add game status and updatedAt, index player and cleanup lookups", conn -> {
+                addColumnIfMissing(conn, "gameData", "status", """
+                        VARCHAR(8) AS (CASE
+                            WHEN finishedAt IS NOT NULL THEN 'FINISHED'
+                            WHEN whiteUsername IS NULL OR blackUsername IS NULL THEN 'OPEN'
+                            ELSE 'ACTIVE' END) STORED""");
+                addColumnIfMissing(conn, "gameData", "updatedAt",
+                        "TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3)");
+                addIndexIfMissing(conn, "gameData", "idx_game_white", "whiteUsername");
+                addIndexIfMissing(conn, "gameData", "idx_game_black", "blackUsername");
+                addIndexIfMissing(conn, "gameData", "idx_game_status", "status, gameID");
+                addIndexIfMissing(conn, "gameData", "idx_game_finished", "finishedAt");
+                addIndexIfMissing(conn, "authData", "idx_auth_username", "username");
+                addIndexIfMissing(conn, "authData", "idx_auth_expires", "expiresAt");
+            })
+    );
+}
@@ -0,0 +1,51 @@
+package dataaccess;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Username to seated gameIDs, for stores that keep games in memory. Callers
+ * must report the seat changes for any one game in the order they happen.
+ * Each username's set is only changed inside {@code compute} for that key,
+ * so updates for different games that share a player never lose each other.
+ */
+class PlayerIndex {
+    private final ConcurrentHashMap<String, Set<Integer>> gamesByPlayer = new ConcurrentHashMap<>();
+
+    void seatsChanged(int gameID, String oldWhite, String oldBlack, String newWhite, String newBlack) {
+        remove(gameID, oldWhite, newWhite, newBlack);
+        remove(gameID, oldBlack, newWhite, newBlack);
+        add(gameID, newWhite);
+        add(gameID, newBlack);
+    }
+
+    Set<Integer> gamesFor(String username) {
+        Set<Integer> ids = gamesByPlayer.get(username);
+        return ids == null ? Set.of() : Set.copyOf(ids);
+    }
+
+    void clear() {
+        gamesByPlayer.clear();
+    }
+
+    private void add(int gameID, String username) {
+        if (username == null) {
+            return;
+        }
+        gamesByPlayer.compute(username, (name, ids) -> {
+            Set<Integer> set = (ids == null) ? ConcurrentHashMap.newKeySet() : ids;
+            set.add(gameID);
+            return set;
+        });
+    }
+
+    private void remove(int gameID, String username, String stillWhite, String stillBlack) {
+        if (username == null || username.equals(stillWhite) || username.equals(stillBlack)) {
+            return;
+        }
+        gamesByPlayer.computeIfPresent(username, (name, ids) -> {
+            ids.remove(gameID);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+}
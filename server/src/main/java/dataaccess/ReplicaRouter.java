@@ -0,0 +1,130 @@
+package dataaccess;
+
+import metrics.Metrics;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Chooses where stale-tolerant reads go. Replicas are used round-robin,
+ * skipping any that the last lag probe found unreachable, stopped or more
+ * than {@code maxLagSeconds} behind; with none usable, reads fall back to the
+ * primary. Probing happens off the request path in {@link #probeAll}, so a
+ * read never waits on it.
+ */
+final class ReplicaRouter {
+
+    interface Connector {
+        Connection open(String url) throws SQLException;
+    }
+
+    interface LagProbe {
+        /**
+         * Seconds behind the primary, or null if replication is stopped.
+         */
+        Long lagSeconds(Connection conn) throws SQLException;
+    }
+
+    private static final class Replica {
+        final String url;
+        // Unknown until the first probe, so nothing is read from it before then.
+        volatile boolean healthy;
+
+        Replica(String url) {
+            this.url = url;
+        }
+    }
+
+    private final Replica[] replicas;
+    private final long maxLagSeconds;
+    private final Connector connector;
+    private final LagProbe probe;
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final Metrics.Counter replicaReads = Metrics.counter("db.reads.replica");
+    private final Metrics.Counter primaryReads = Metrics.counter("db.reads.primaryFallback");
+    private final Metrics.Counter probeFailures = Metrics.counter("db.replicas.probeFailures");
+    private final Metrics.Counter unreachable = Metrics.counter("db.replicas.unreachable");
+    private final Metrics.Counter lagging = Metrics.counter("db.replicas.lagging");
+
+    ReplicaRouter(List<String> urls, long maxLagSeconds, Connector connector, LagProbe probe) {
+        this.replicas = urls.stream().map(Replica::new).toArray(Replica[]::new);
+        this.maxLagSeconds = maxLagSeconds;
+        this.connector = connector;
+        this.probe = probe;
+        Metrics.gauge("db.replicas.healthy", () -> {
+            long healthy = 0;
+            for (Replica replica : replicas) {
+                healthy += replica.healthy ? 1 : 0;
+            }
+            return healthy;
+        });
+    }
+
+    boolean hasReplicas() {
+        return replicas.length > 0;
+    }
+
+    /**
+     * A connection to the next usable replica, or null if the read should go
+     * to the primary.
+     */
+    Connection replicaConnection() {
+        for (int attempt = 0; attempt < replicas.length; attempt++) {
+            Replica replica = replicas[Math.floorMod(next.getAndIncrement(), replicas.length)];
+            if (!replica.healthy) {
+                continue;
+            }
+            try {
+                Connection conn = connector.open(replica.url);
+                replicaReads.increment();
+                return conn;
+            }
+            catch (SQLException e) {
+                // Left out until the next probe finds it again.
+                replica.healthy = false;
+                unreachable.increment();
+            }
+        }
+        if (replicas.length > 0) {
+            primaryReads.increment();
+        }
+        return null;
+    }
+
+    /**
+     * Re-checks every replica. A replica that can't be reached or is behind
+     * is taken out of rotation. One that answers but can't report its lag,
+     * typically for want of the REPLICATION CLIENT privilege, is taken out
+     * too, but counted and logged separately so it doesn't just look like
+     * permanent lag.
+     */
+    void probeAll() {
+        for (Replica replica : replicas) {
+            Connection conn;
+            try {
+                conn = connector.open(replica.url);
+            }
+            catch (SQLException e) {
+                replica.healthy = false;
+                unreachable.increment();
+                continue;
+            }
+            try (conn) {
+                Long lag = probe.lagSeconds(conn);
+                replica.healthy = lag != null && lag <= maxLagSeconds;
+                if (!replica.healthy) {
+                    lagging.increment();
+                }
+            }
+            catch (SQLException e) {
+                replica.healthy = false;
+                probeFailures.increment();
+                System.out.println("Unable to check replication lag on " + replica.url + " (SQLState "
+                        + e.getSQLState() + "): " + e.getMessage());
+            }
+        }
+    }
+}
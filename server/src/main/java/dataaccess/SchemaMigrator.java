@@ -0,0 +1,186 @@
+package dataaccess;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Applies numbered schema migrations in order and records each one in the
+ * {@code schemaVersion} table, so every migration runs once per database.
+ * A MySQL named lock keeps two servers starting together from running the
+ * same migration twice.
+ */
+public class SchemaMigrator {
+    private static final String LOCK_NAME = "chess_schema_migration";
+    private static final int LOCK_TIMEOUT_SECONDS = 60;
+
+    public interface Step {
+        void apply(Connection conn) throws SQLException;
+    }
+
+    public record Migration(int version, String description, Step step) { }
+
+    private final List<Migration> migrations;
+
+    public SchemaMigrator(List<Migration> migrations) {
+        this.migrations = migrations;
+    }
+
+    /**
+     * @return the number of migrations applied
+     */
+    public int migrate(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("""
+                CREATE TABLE IF NOT EXISTS schemaVersion (
+                    version     INT NOT NULL PRIMARY KEY,
+                    description VARCHAR(200) NOT NULL,
+                    appliedAt   BIGINT NOT NULL
+                ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci
+            """);
+        }
+
+        acquireLock(conn);
+        try {
+            Set<Integer> applied = appliedVersions(conn);
+            int count = 0;
+            for (Migration migration : migrations) {
+                if (applied.contains(migration.version())) {
+                    continue;
+                }
+                migration.step().apply(conn);
+                recordApplied(conn, migration);
+                System.out.println("Applied schema migration " + migration.version() + ": " + migration.description());
+                count++;
+            }
+            return count;
+        }
+        finally {
+            releaseLock(conn);
+        }
+    }
+
+    private void acquireLock(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            stmt.setString(1, LOCK_NAME);
+            stmt.setInt(2, LOCK_TIMEOUT_SECONDS);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next() || rs.getInt(1) != 1) {
+                    throw new SQLException("Timed out waiting for the schema migration lock");
+                }
+            }
+        }
+    }
+
+    private void releaseLock(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            stmt.setString(1, LOCK_NAME);
+            stmt.executeQuery().close();
+        }
+    }
+
+    private Set<Integer> appliedVersions(Connection conn) throws SQLException {
+        Set<Integer> versions = new HashSet<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT version FROM schemaVersion")) {
+            while (rs.next()) {
+                versions.add(rs.getInt("version"));
+            }
+        }
+        return versions;
+    }
+
+    private void recordApplied(Connection conn, Migration migration) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO schemaVersion (version, description, appliedAt) VALUES (?, ?, ?)")) {
+            stmt.setInt(1, migration.version());
+            stmt.setString(2, migration.description());
+            stmt.setLong(3, System.currentTimeMillis());
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * A step that runs each statement in order.
+     */
+    static Step sql(String... statements) {
+        return conn -> {
+            try (Statement stmt = conn.createStatement()) {
+                for (String statement : statements) {
+                    stmt.executeUpdate(statement);
+                }
+            }
+        };
+    }
+
+    static void addColumnIfMissing(Connection conn, String table, String column, String definition)
+            throws SQLException {
+        if (columnInfo(conn, table, column, "COLUMN_NAME") != null) {
+            return;
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition);
+        }
+    }
+
+    static void makeNullable(Connection conn, String table, String column, String type) throws SQLException {
+        String nullable = columnInfo(conn, table, column, "IS_NULLABLE");
+        if (nullable == null || nullable.equalsIgnoreCase("YES")) {
+            return;
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("ALTER TABLE " + table + " MODIFY " + column + " " + type + " NULL");
+        }
+    }
+
+    static void makeAutoIncrement(Connection conn, String table, String column) throws SQLException {
+        String extra = columnInfo(conn, table, column, "EXTRA");
+        if (extra == null || extra.toLowerCase().contains("auto_increment")) {
+            return;
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("ALTER TABLE " + table + " MODIFY " + column + " INT NOT NULL AUTO_INCREMENT");
+        }
+    }
+
+    static void addIndexIfMissing(Connection conn, String table, String index, String columns) throws SQLException {
+        final String sql = """
+            SELECT 1
+            FROM information_schema.STATISTICS
+            WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND INDEX_NAME = ?
+        """;
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, table);
+            stmt.setString(2, index);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return;
+                }
+            }
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE INDEX " + index + " ON " + table + " (" + columns + ")");
+        }
+    }
+
+    private static String columnInfo(Connection conn, String table, String column, String field) throws SQLException {
+        final String sql = "SELECT " + field + """
+             FROM information_schema.COLUMNS
+            WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND COLUMN_NAME = ?
+        """;
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, table);
+            stmt.setString(2, column);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
+    }
+}
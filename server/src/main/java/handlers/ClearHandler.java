@@ -1,6 +1,7 @@
 package handlers;
 
 import com.google.gson.Gson;
+import serialization.Serializer;
 import service.ClearService;
 import spark.Request;
 import spark.Response;
@@ -9,7 +10,7 @@ import spark.Route;
 public class ClearHandler implements Route {
 
     private final ClearService clearService;
-    private final Gson gson = new Gson();
+    private final Gson gson = Serializer.GSON;
 
     public ClearHandler(ClearService clearService) {
         this.clearService = clearService;
@@ -3,6 +3,7 @@ package handlers;
 import model.GameData;
 import service.GameService;
 import com.google.gson.Gson;
+import serialization.Serializer;
 import dataaccess.DataAccessException;
 import spark.Request;
 import spark.Response;
@@ -10,7 +11,7 @@ import spark.Route;
 
 public class GetGameHandler implements Route {
     private final GameService gameService;
-    private final Gson gson = new Gson();
+    private final Gson gson = Serializer.GSON;
 
     public GetGameHandler(GameService gameService) {
         this.gameService = gameService;
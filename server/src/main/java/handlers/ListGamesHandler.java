@@ -1,6 +1,7 @@
 package handlers;
 
 import com.google.gson.Gson;
+import serialization.Serializer;
 import dataaccess.DataAccessException;
 import service.GameService;
 import service.results.ListGamesResult;
@@ -10,7 +11,7 @@ import spark.Route;
 
 public class ListGamesHandler implements Route {
     private final GameService gameService;
-    private final Gson gson = new Gson();
+    private final Gson gson = Serializer.GSON;
 
     public ListGamesHandler(GameService gameService) {
         this.gameService = gameService;
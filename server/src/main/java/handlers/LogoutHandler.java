@@ -1,6 +1,7 @@
 package handlers;
 
 import com.google.gson.Gson;
+import serialization.Serializer;
 import dataaccess.DataAccessException;
 import service.UserService;
 import service.requests.LogoutRequest;
@@ -11,7 +12,7 @@ import spark.Route;
 
 public class LogoutHandler implements Route {
     private final UserService userService;
-    private final Gson gson = new Gson();
+    private final Gson gson = Serializer.GSON;
 
     public LogoutHandler(UserService userService) {
         this.userService = userService;
@@ -0,0 +1,18 @@
+package handlers;
+
+import com.google.gson.Gson;
+import serialization.Serializer;
+import metrics.Metrics;
+import spark.Request;
+import spark.Response;
+import spark.Route;
+
+public class MetricsHandler implements Route {
+    private final Gson gson = Serializer.GSON;
+
+    @Override
+    public Object handle(Request req, Response res) {
+        res.status(200);
+        return gson.toJson(Metrics.snapshot());
+    }
+}
@@ -1,6 +1,7 @@
 package handlers;
 
 import com.google.gson.Gson;
+import serialization.Serializer;
 import dataaccess.DataAccessException;
 import service.UserService;
 import service.requests.RegisterRequest;
@@ -11,7 +12,7 @@ import spark.Route;
 
 public class RegisterHandler implements Route {
     private final UserService userService;
-    private final Gson gson = new Gson();
+    private final Gson gson = Serializer.GSON;
 
     public RegisterHandler(UserService userService) {
         this.userService = userService;
@@ -35,7 +36,12 @@ public class RegisterHandler implements Route {
 
         }
         catch (DataAccessException e) {
-            if (e.getMessage().contains("User already exists")
+            if (e.getMessage().startsWith("Service unavailable")) {
+                res.status(503);
+                res.header("Retry-After", "1");
+                return "{\"message\":\"Error: service unavailable\"}";
+            }
+            else if (e.getMessage().contains("User already exists")
                     || e.getMessage().contains("already taken")) {
                 res.status(403);
                 return "{\"message\":\"Error: already taken\"}";
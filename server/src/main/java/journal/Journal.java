@@ -0,0 +1,306 @@
+package journal;
+
+import metrics.Metrics;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log split into fixed-size, memory-mapped segment files. Each
+ * frame is {@code [int length][int crc32][long seq][byte type][payload]},
+ * with the CRC covering everything after it. A zero length marks the end
+ * of a segment.
+ *
+ * <p>Appends only copy into the mapped segment. A background thread forces
+ * the segment to disk once per group-commit window, and {@link #awaitDurable}
+ * blocks until a given sequence number has been flushed. Many concurrent
+ * writers therefore share one fsync.
+ */
+public class Journal implements Closeable {
+    private static final int HEADER_BYTES = 8;
+    private static final int BODY_PREFIX_BYTES = 9;
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    public record Record(long seq, byte type, byte[] payload) { }
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final long groupCommitNanos;
+    private final List<Long> segmentStarts = new ArrayList<>();
+
+    // guarded by appendLock
+    private final Object appendLock = new Object();
+    private MappedByteBuffer segment;
+    private long nextSeq;
+
+    private final ReentrantLock durableLock = new ReentrantLock();
+    private final Condition durableAdvanced = durableLock.newCondition();
+    private final Condition pending = durableLock.newCondition();
+    private volatile long durableSeq;
+    private volatile IOException failure;
+    private volatile boolean closed;
+    private final Thread flusher;
+
+    private final Metrics.Distribution fsyncNanos = Metrics.distribution("journal.fsync.nanos");
+    private final Metrics.Distribution groupSize = Metrics.distribution("journal.group.size");
+
+    /**
+     * Opens or creates the journal in {@code dir}. Every intact record with a
+     * sequence number above {@code afterSeq} is passed to {@code replay} in
+     * order before this returns. A torn or corrupt tail in the last segment
+     * is discarded and overwritten by later appends.
+     */
+    public static Journal open(Path dir, int segmentBytes, Duration groupCommitWindow, long afterSeq,
+                               Consumer<Record> replay) throws IOException {
+        Journal journal = new Journal(dir, segmentBytes, groupCommitWindow);
+        journal.recover(afterSeq, replay);
+        journal.flusher.start();
+        return journal;
+    }
+
+    private Journal(Path dir, int segmentBytes, Duration groupCommitWindow) throws IOException {
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        this.groupCommitNanos = groupCommitWindow.toNanos();
+        Files.createDirectories(dir);
+        this.flusher = new Thread(this::flushLoop, "journal-flusher");
+        this.flusher.setDaemon(true);
+    }
+
+    private void recover(long afterSeq, Consumer<Record> replay) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            files.map(p -> p.getFileName().toString())
+                    .filter(name -> name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .forEach(segmentStarts::add);
+        }
+
+        long expected = -1;
+        for (int i = 0; i < segmentStarts.size(); i++) {
+            boolean last = i == segmentStarts.size() - 1;
+            MappedByteBuffer buf = map(segmentStarts.get(i));
+            int pos = 0;
+            while (pos + HEADER_BYTES <= buf.capacity()) {
+                int length = buf.getInt(pos);
+                if (length < BODY_PREFIX_BYTES || pos + HEADER_BYTES + length > buf.capacity()) {
+                    break;
+                }
+                byte[] body = new byte[length];
+                buf.get(pos + HEADER_BYTES, body);
+                CRC32 crc = new CRC32();
+                crc.update(body);
+                long seq = buf.getLong(pos + HEADER_BYTES);
+                if ((int) crc.getValue() != buf.getInt(pos + 4) || (expected != -1 && seq != expected)) {
+                    break;
+                }
+                if (seq > afterSeq) {
+                    byte[] payload = new byte[length - BODY_PREFIX_BYTES];
+                    System.arraycopy(body, BODY_PREFIX_BYTES, payload, 0, payload.length);
+                    replay.accept(new Record(seq, body[8], payload));
+                }
+                expected = seq + 1;
+                pos += HEADER_BYTES + length;
+            }
+            if (!last && pos + HEADER_BYTES <= buf.capacity() && buf.getInt(pos) != 0) {
+                throw new IOException("Corrupt journal segment " + segmentPath(segmentStarts.get(i))
+                        + " at offset " + pos);
+            }
+            if (last) {
+                segment = buf;
+                segment.position(pos);
+            }
+        }
+
+        nextSeq = Math.max(expected, afterSeq + 1);
+        if (segment == null) {
+            roll();
+        }
+        durableSeq = nextSeq - 1;
+    }
+
+    /**
+     * Appends a record and returns its sequence number. The record is not
+     * durable until {@link #awaitDurable} returns for that number.
+     */
+    public long append(byte type, byte[] payload) throws IOException {
+        checkUsable();
+        int length = BODY_PREFIX_BYTES + payload.length;
+        if (HEADER_BYTES + length > segmentBytes) {
+            throw new IOException("Journal record of " + payload.length + " bytes exceeds segment size");
+        }
+        long seq;
+        synchronized (appendLock) {
+            if (segment.remaining() < HEADER_BYTES + length) {
+                segment.force();
+                roll();
+            }
+            seq = nextSeq++;
+            byte[] body = new byte[length];
+            ByteBuffer.wrap(body).putLong(seq).put(type).put(payload);
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            segment.putInt(length);
+            segment.putInt((int) crc.getValue());
+            segment.put(body);
+        }
+        durableLock.lock();
+        try {
+            pending.signal();
+        }
+        finally {
+            durableLock.unlock();
+        }
+        return seq;
+    }
+
+    /**
+     * Blocks until every record up to {@code seq} has been forced to disk.
+     */
+    public void awaitDurable(long seq) throws IOException {
+        durableLock.lock();
+        try {
+            while (durableSeq < seq && failure == null && !closed) {
+                durableAdvanced.awaitUninterruptibly();
+            }
+        }
+        finally {
+            durableLock.unlock();
+        }
+        if (durableSeq < seq) {
+            checkUsable();
+            throw new IOException("Journal closed before record " + seq + " was flushed");
+        }
+    }
+
+    public long lastSeq() {
+        synchronized (appendLock) {
+            return nextSeq - 1;
+        }
+    }
+
+    /**
+     * Deletes segments whose records all have sequence numbers at or below
+     * {@code seq}. Called once a snapshot covers them.
+     */
+    public void deleteSegmentsThrough(long seq) throws IOException {
+        synchronized (appendLock) {
+            while (segmentStarts.size() > 1 && segmentStarts.get(1) <= seq + 1) {
+                Files.deleteIfExists(segmentPath(segmentStarts.remove(0)));
+            }
+        }
+    }
+
+    private void roll() throws IOException {
+        segmentStarts.add(nextSeq);
+        segment = map(nextSeq);
+    }
+
+    private MappedByteBuffer map(long firstSeq) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(segmentPath(firstSeq).toFile(), "rw")) {
+            if (file.length() < segmentBytes) {
+                file.setLength(segmentBytes);
+            }
+            return file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, file.length());
+        }
+    }
+
+    private Path segmentPath(long firstSeq) {
+        return dir.resolve(String.format("%020d%s", firstSeq, SEGMENT_SUFFIX));
+    }
+
+    private void flushLoop() {
+        while (!closed) {
+            durableLock.lock();
+            try {
+                while (!closed && lastSeq() <= durableSeq) {
+                    pending.awaitUninterruptibly();
+                }
+            }
+            finally {
+                durableLock.unlock();
+            }
+            if (closed) {
+                break;
+            }
+            LockSupport.parkNanos(groupCommitNanos);
+            flushOnce();
+        }
+    }
+
+    private void flushOnce() {
+        long target;
+        MappedByteBuffer current;
+        synchronized (appendLock) {
+            target = nextSeq - 1;
+            current = segment;
+        }
+        long start = System.nanoTime();
+        try {
+            // Earlier segments were forced when the journal rolled past them.
+            current.force();
+        }
+        catch (RuntimeException e) {
+            failure = new IOException("Journal fsync failed: " + e.getMessage(), e);
+        }
+        fsyncNanos.recordSince(start);
+        durableLock.lock();
+        try {
+            if (failure == null) {
+                groupSize.record(target - durableSeq);
+                durableSeq = target;
+            }
+            durableAdvanced.signalAll();
+        }
+        finally {
+            durableLock.unlock();
+        }
+    }
+
+    private void checkUsable() throws IOException {
+        if (failure != null) {
+            throw failure;
+        }
+        if (closed) {
+            throw new IOException("Journal is closed");
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        flushOnce();
+        durableLock.lock();
+        try {
+            closed = true;
+            pending.signalAll();
+            durableAdvanced.signalAll();
+        }
+        finally {
+            durableLock.unlock();
+        }
+        try {
+            flusher.join(1000);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
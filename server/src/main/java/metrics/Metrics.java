@@ -0,0 +1,98 @@
+package metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Process-wide registry of named counters, distributions and gauges.
+ * Everything here is lock-free on the recording path so it can be called
+ * from request threads without adding contention.
+ */
+public class Metrics {
+
+    private static final Map<String, Counter> COUNTERS = new ConcurrentHashMap<>();
+    private static final Map<String, Distribution> DISTRIBUTIONS = new ConcurrentHashMap<>();
+    private static final Map<String, LongSupplier> GAUGES = new ConcurrentHashMap<>();
+
+    public static Counter counter(String name) {
+        return COUNTERS.computeIfAbsent(name, n -> new Counter());
+    }
+
+    public static Distribution distribution(String name) {
+        return DISTRIBUTIONS.computeIfAbsent(name, n -> new Distribution());
+    }
+
+    /**
+     * Registers a gauge that is sampled whenever a snapshot is taken. Registering
+     * the same name again replaces the previous supplier.
+     */
+    public static void gauge(String name, LongSupplier supplier) {
+        GAUGES.put(name, supplier);
+    }
+
+    public static Map<String, Object> snapshot() {
+        Map<String, Object> out = new TreeMap<>();
+        COUNTERS.forEach((name, c) -> out.put(name, c.get()));
+        GAUGES.forEach((name, g) -> out.put(name, g.getAsLong()));
+        DISTRIBUTIONS.forEach((name, d) -> out.put(name, d.snapshot()));
+        return out;
+    }
+
+    public static class Counter {
+        private final LongAdder value = new LongAdder();
+
+        public void increment() {
+            value.increment();
+        }
+
+        public void add(long n) {
+            value.add(n);
+        }
+
+        public long get() {
+            return value.sum();
+        }
+    }
+
+    /**
+     * Tracks count, total and max of a recorded value, e.g. latencies in
+     * nanoseconds or fan-out sizes.
+     */
+    public static class Distribution {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder total = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        public void record(long value) {
+            count.increment();
+            total.add(value);
+            max.accumulate(value);
+        }
+
+        /**
+         * Records the time elapsed since {@code startNanos}, as returned by
+         * {@link System#nanoTime()}.
+         */
+        public void recordSince(long startNanos) {
+            record(System.nanoTime() - startNanos);
+        }
+
+        public long count() {
+            return count.sum();
+        }
+
+        public Map<String, Long> snapshot() {
+            long n = count.sum();
+            long sum = total.sum();
+            Map<String, Long> out = new TreeMap<>();
+            out.put("count", n);
+            out.put("mean", n == 0 ? 0 : sum / n);
+            out.put("max", max.get());
+            return out;
+        }
+    }
+}
@@ -1,33 +1,149 @@
 package server;
 
+import dataaccess.AuthCachingDataAccess;
+import dataaccess.CachingDataAccess;
 import dataaccess.DBDataAccess;
 import dataaccess.DataAccess;
 import dataaccess.DataAccessException;
+import dataaccess.DatabaseManager;
+import dataaccess.FileDataAccess;
+import dataaccess.GameArchiver;
+import dataaccess.GameStateMigrator;
+import dataaccess.JournalDataAccess;
+import dataaccess.MemoryDataAccess;
 import handlers.*;
 import service.ClearService;
 import service.GameService;
+import service.PasswordHasher;
 import service.UserService;
 import spark.Spark;
+import websocket.GameExecutor;
 import websocket.GameWebSocketHandler;
+import websocket.Heartbeat;
+import websocket.Outbox;
+import websocket.TimerWheel;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 public class Server {
 
+    private ScheduledExecutorService maintenance;
+    private Closeable storage;
+    private GameExecutor gameExecutor;
+    private TimerWheel clockWheel;
+    private Heartbeat heartbeat;
+
     public int run(int desiredPort) {
         Spark.port(desiredPort);
 
-        Spark.webSocket("/ws", GameWebSocketHandler.class);
-
-        Spark.staticFiles.location("web");
-
+        Duration authTokenTtl = Duration.ofSeconds(ServerConfig.getLong("auth.tokenTtlSeconds", 86_400));
+        String backend = ServerConfig.getString("storage.backend", "mysql");
+        DBDataAccess db = null;
         DataAccess dao;
         try {
-            dao = new DBDataAccess();
+            switch (backend) {
+                case "mysql" -> {
+                    db = new DBDataAccess(authTokenTtl);
+                    DataAccess gameCache = new CachingDataAccess(db,
+                            ServerConfig.getInt("cache.games.maxSize", 10_000),
+                            Duration.ofSeconds(ServerConfig.getLong("cache.games.idleSeconds", 1800)));
+                    dao = new AuthCachingDataAccess(gameCache,
+                            ServerConfig.getInt("cache.auth.maxSize", 100_000),
+                            Duration.ofSeconds(ServerConfig.getLong("cache.auth.ttlSeconds", 60)),
+                            Duration.ofSeconds(ServerConfig.getLong("cache.auth.invalidTtlSeconds", 10)));
+                }
+                case "file" -> {
+                    FileDataAccess file = new FileDataAccess(
+                            Path.of(ServerConfig.getString("storage.file.dir", "data")),
+                            authTokenTtl,
+                            ServerConfig.getBoolean("storage.file.fsync", true));
+                    storage = file;
+                    dao = file;
+                }
+                case "journal" -> {
+                    Path journalDir = Path.of(ServerConfig.getString("storage.journal.dir", "journal"));
+                    FileDataAccess accounts = new FileDataAccess(journalDir.resolve("accounts"), authTokenTtl,
+                            ServerConfig.getBoolean("storage.file.fsync", true));
+                    JournalDataAccess journal = new JournalDataAccess(accounts, journalDir,
+                            ServerConfig.getInt("storage.journal.segmentBytes", 64 * 1024 * 1024),
+                            Duration.ofMillis(ServerConfig.getLong("storage.journal.groupCommitMillis", 2)),
+                            ServerConfig.getInt("storage.journal.snapshotEvery", 10_000));
+                    System.out.println("Recovered " + journal.gameCount() + " games from " + journalDir);
+                    storage = journal;
+                    dao = journal;
+                }
+                case "memory" -> dao = new MemoryDataAccess(authTokenTtl);
+                default -> throw new IllegalArgumentException("Unknown storage.backend: " + backend);
+            }
         } catch (DataAccessException e) {
             throw new RuntimeException(e);
         }
 
-        UserService  userService  = new UserService(dao);
-        GameService  gameService  = new GameService(dao);
+        maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "server-maintenance");
+            t.setDaemon(true);
+            return t;
+        });
+        long purgeSeconds = ServerConfig.getLong("auth.purgeIntervalSeconds", 600);
+        maintenance.scheduleWithFixedDelay(() -> {
+            try {
+                dao.deleteExpiredAuths();
+            }
+            catch (DataAccessException e) {
+                System.out.println("Failed to purge expired auth tokens: " + e.getMessage());
+            }
+        }, purgeSeconds, purgeSeconds, TimeUnit.SECONDS);
+        if (db != null) {
+            DatabaseManager.startReplicaMonitor(maintenance);
+            maintenance.execute(new GameStateMigrator(db, ServerConfig.getInt("migration.gameState.batchSize", 500)));
+            long archiveSeconds = ServerConfig.getLong("archive.intervalSeconds", 300);
+            maintenance.scheduleWithFixedDelay(new GameArchiver(db,
+                            Duration.ofSeconds(ServerConfig.getLong("archive.graceSeconds", 3600)),
+                            ServerConfig.getInt("archive.batchSize", 500)),
+                    archiveSeconds, archiveSeconds, TimeUnit.SECONDS);
+        }
+
+        clockWheel = new TimerWheel(Duration.ofMillis(ServerConfig.getLong("clock.tickMillis", 100)),
+                ServerConfig.getInt("clock.wheelSize", 512), "clock-wheel");
+        heartbeat = new Heartbeat(Duration.ofSeconds(ServerConfig.getLong("ws.heartbeat.intervalSeconds", 30)),
+                Duration.ofSeconds(ServerConfig.getLong("ws.heartbeat.timeoutSeconds", 75)),
+                Duration.ofMillis(ServerConfig.getLong("ws.heartbeat.pingTimeoutMillis", 5000)));
+        gameExecutor = new GameExecutor(
+                ServerConfig.getInt("ws.gameThreads", Runtime.getRuntime().availableProcessors()));
+        GameWebSocketHandler gameSockets = new GameWebSocketHandler(dao, gameExecutor,
+                ServerConfig.getInt("ws.outbound.highWaterMark", 64),
+                Outbox.Policy.valueOf(ServerConfig.getString("ws.outbound.slowConsumerPolicy", "DISCONNECT")),
+                ServerConfig.getInt("ws.resume.eventsPerGame", 64),
+                ServerConfig.getInt("ws.resume.maxGames", 10_000),
+                clockWheel, heartbeat);
+        Spark.webSocket("/ws", gameSockets);
+        heartbeat.start(gameSockets::onReaped);
+        maintenance.execute(() -> {
+            try {
+                System.out.println("Armed flag timers for " + gameSockets.armClocks() + " running clocks");
+            }
+            catch (DataAccessException e) {
+                System.out.println("Failed to arm flag timers: " + e.getMessage());
+            }
+        });
+
+        Spark.staticFiles.location("web");
+
+        int hashThreads = ServerConfig.getInt("bcrypt.threads", Runtime.getRuntime().availableProcessors());
+        PasswordHasher hasher = new PasswordHasher(
+                ServerConfig.getInt("bcrypt.cost", 10),
+                hashThreads,
+                ServerConfig.getInt("bcrypt.queueLimit", hashThreads * 8));
+        PasswordHasher.setDefault(hasher);
+
+        UserService  userService  = new UserService(dao, hasher);
+        GameService  gameService  = new GameService(dao, gameSockets::armClock);
         ClearService clearService = new ClearService(dao);
 
         Spark.post  ("/user",   new RegisterHandler(userService));
@@ -38,9 +154,12 @@ public class Server {
         Spark.put  ("/game", new JoinGameHandler(gameService));
         Spark.get  ("/game", new ListGamesHandler(gameService));
         Spark.get  ("/game/:id", new GetGameHandler(gameService));
+        Spark.get  ("/user/games", new PlayerGamesHandler(gameService));
 
         Spark.delete("/db", new ClearHandler(clearService));
 
+        Spark.get  ("/metrics", new MetricsHandler());
+
         Spark.init();
         Spark.awaitInitialization();
         System.out.println("HTTP  server running  on http://localhost:" + Spark.port());
@@ -49,7 +168,31 @@ public class Server {
     }
 
     public void stop() {
+        if (maintenance != null) {
+            maintenance.shutdownNow();
+        }
         Spark.stop();
         Spark.awaitStop();
+        if (heartbeat != null) {
+            heartbeat.stop();
+            heartbeat = null;
+        }
+        if (clockWheel != null) {
+            clockWheel.stop();
+            clockWheel = null;
+        }
+        if (gameExecutor != null) {
+            gameExecutor.shutdown();
+            gameExecutor = null;
+        }
+        if (storage != null) {
+            try {
+                storage.close();
+            }
+            catch (IOException e) {
+                System.out.println("Failed to close storage: " + e.getMessage());
+            }
+            storage = null;
+        }
     }
 }
@@ -0,0 +1,40 @@
+package server;
+
+import java.util.Properties;
+
+/**
+ * Tunable server settings. Values come from an optional server.properties on
+ * the classpath, and any key can be overridden with a -D system property.
+ */
+public class ServerConfig {
+    private static final Properties PROPS = new Properties();
+
+    static {
+        try (var propStream = Thread.currentThread().getContextClassLoader().getResourceAsStream("server.properties")) {
+            if (propStream != null) {
+                PROPS.load(propStream);
+            }
+        } catch (Exception ex) {
+            throw new RuntimeException("unable to process server.properties. " + ex.getMessage());
+        }
+    }
+
+    public static String getString(String key, String defaultValue) {
+        return System.getProperty(key, PROPS.getProperty(key, defaultValue));
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        String value = getString(key, null);
+        return value == null ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    public static long getLong(String key, long defaultValue) {
+        String value = getString(key, null);
+        return value == null ? defaultValue : Long.parseLong(value.trim());
+    }
+
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        String value = getString(key, null);
+        return value == null ? defaultValue : Boolean.parseBoolean(value.trim());
+    }
+}
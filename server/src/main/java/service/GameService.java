@@ -10,22 +10,30 @@ import service.results.CreateGameResult;
 import service.results.JoinGameResult;
 import service.results.ListGamesResult;
 
+import chess.ChessClock;
 import chess.ChessGame;
 
 import java.util.List;
+import java.util.function.IntConsumer;
 
 public class GameService {
+    private static final int CLOCK_START_ATTEMPTS = 3;
+
     private final DataAccess dao;
-    private int nextGameID = 1;
+    private final IntConsumer clockStarted;
 
     public GameService(DataAccess dao) {
+        this(dao, gameID -> { });
+    }
+
+    /**
+     * @param clockStarted told the ID of each timed game whose clock starts
+     *                     because both seats were filled, so its flag can be
+     *                     watched
+     */
+    public GameService(DataAccess dao, IntConsumer clockStarted) {
         this.dao = dao;
-        int maxID = 0;
-        try {
-            maxID = dao.getMaxGameID();
-        }
-        catch (DataAccessException ignored) {}
-        nextGameID = maxID + 1;
+        this.clockStarted = clockStarted;
     }
 
     public GameData getGame(int gameID, String token) throws DataAccessException {
@@ -45,18 +53,25 @@ public class GameService {
             throw new DataAccessException("Bad request: gameName is missing/empty");
         }
 
-        int newID = nextGameID;
-        nextGameID++;
+        ChessGame chessGame = new ChessGame();
+        if (request.baseSeconds() != null) {
+            int increment = (request.incrementSeconds() == null) ? 0 : request.incrementSeconds();
+            if (request.baseSeconds() <= 0 || increment < 0) {
+                throw new DataAccessException("Bad request: invalid time control");
+            }
+            chessGame.setClock(new ChessClock(request.baseSeconds() * 1000L, increment * 1000L));
+        }
 
+        // The store allocates the ID, so concurrent creates on any node never collide.
         GameData newGame = new GameData(
-                newID,
+                0,
                 null,
                 null,
                 request.gameName(),
-                new ChessGame()
+                chessGame
         );
 
-        dao.createGame(newGame);
+        int newID = dao.createGame(newGame);
 
         return new CreateGameResult(newID);
     }
@@ -78,39 +93,44 @@ public class GameService {
             throw new DataAccessException("Bad request: invalid gameID");
         }
 
-        GameData game = dao.getGame(request.gameID());
-        if (game == null) {
-            throw new DataAccessException("Bad request: game does not exist");
+        // Claim the seat in one conditional write; only look the game up to explain a failure.
+        if (!dao.claimSeat(request.gameID(), ChessGame.TeamColor.valueOf(color), username)) {
+            if (dao.getGame(request.gameID()) == null) {
+                throw new DataAccessException("Bad request: game does not exist");
+            }
+            throw new DataAccessException("already taken");
         }
+        startClockIfSeated(request.gameID());
 
-        if (color.equals("WHITE")) {
-            if (game.whiteUsername() != null) {
-                throw new DataAccessException("already taken");
+        return new JoinGameResult();
+    }
+
+    /**
+     * Starts a timed game's clock once both seats are filled, so a game that
+     * is abandoned before the first move still ends on time. A concurrent
+     * write to the game is retried; by then it may have started anyway.
+     */
+    private void startClockIfSeated(int gameID) throws DataAccessException {
+        for (int attempt = 0; attempt < CLOCK_START_ATTEMPTS; attempt++) {
+            GameData game = dao.getGame(gameID);
+            ChessClock clock = (game == null) ? null : game.game().getClock();
+            if (clock == null || clock.isRunning() || game.game().isGameOver()
+                    || game.whiteUsername() == null || game.blackUsername() == null) {
+                return;
             }
-            game = new GameData(
-                    game.gameID(),
-                    username,
-                    game.blackUsername(),
-                    game.gameName(),
-                    game.game()
-            );
-        }
-        else {
-            if (game.blackUsername() != null) {
-                throw new DataAccessException("already taken");
+            clock.start(System.currentTimeMillis());
+            try {
+                dao.updateGame(game);
+            }
+            catch (DataAccessException e) {
+                if (e.getMessage() != null && e.getMessage().startsWith("Conflict")) {
+                    continue;
+                }
+                throw e;
             }
-            game = new GameData(
-                    game.gameID(),
-                    game.whiteUsername(),
-                    username,
-                    game.gameName(),
-                    game.game()
-            );
+            clockStarted.accept(gameID);
+            return;
         }
-
-        dao.updateGame(game);
-
-        return new JoinGameResult();
     }
 
     public ListGamesResult listGames(String authToken) throws DataAccessException {
@@ -121,6 +141,15 @@ public class GameService {
         return new ListGamesResult(allGames);
     }
 
+    /**
+     * Games the caller is seated in, for players reconnecting from the lobby.
+     */
+    public ListGamesResult listPlayerGames(String authToken) throws DataAccessException {
+        AuthData auth = requireValidAuth(authToken);
+
+        return new ListGamesResult(dao.listGamesForPlayer(auth.username()));
+    }
+
     private AuthData requireValidAuth(String token) throws DataAccessException {
         if (token == null || token.isBlank()) {
             throw new DataAccessException("Unauthorized: no authToken provided");
@@ -0,0 +1,105 @@
+package service;
+
+import dataaccess.DataAccessException;
+import metrics.Metrics;
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs BCrypt hashing and verification on a small dedicated pool so a burst
+ * of logins cannot occupy every request thread with CPU-bound work. When the
+ * pool and its queue are full, new requests are rejected right away with a
+ * "Service unavailable" error instead of waiting.
+ */
+public class PasswordHasher {
+
+    private static PasswordHasher defaultHasher;
+
+    private final int cost;
+    private final ThreadPoolExecutor pool;
+
+    private final Metrics.Distribution hashNanos = Metrics.distribution("bcrypt.hash.nanos");
+    private final Metrics.Distribution verifyNanos = Metrics.distribution("bcrypt.verify.nanos");
+    private final Metrics.Counter rejected = Metrics.counter("bcrypt.rejected");
+
+    public PasswordHasher(int cost, int threads, int queueLimit) {
+        this.cost = cost;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueLimit),
+                r -> {
+                    Thread t = new Thread(r, "bcrypt-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        Metrics.gauge("bcrypt.queueDepth", () -> pool.getQueue().size());
+        Metrics.gauge("bcrypt.active", pool::getActiveCount);
+    }
+
+    /**
+     * Shared hasher used when no configured instance is supplied. Library
+     * defaults unless the server has installed its configured one.
+     */
+    public static synchronized PasswordHasher getDefault() {
+        if (defaultHasher == null) {
+            int threads = Runtime.getRuntime().availableProcessors();
+            defaultHasher = new PasswordHasher(10, threads, threads * 8);
+        }
+        return defaultHasher;
+    }
+
+    public static synchronized void setDefault(PasswordHasher hasher) {
+        defaultHasher = hasher;
+    }
+
+    public String hash(String clearTextPassword) throws DataAccessException {
+        return run(() -> {
+            long start = System.nanoTime();
+            String hashed = BCrypt.hashpw(clearTextPassword, BCrypt.gensalt(cost));
+            hashNanos.recordSince(start);
+            return hashed;
+        });
+    }
+
+    public boolean verify(String clearTextPassword, String hashedPassword) throws DataAccessException {
+        return run(() -> {
+            long start = System.nanoTime();
+            try {
+                return BCrypt.checkpw(clearTextPassword, hashedPassword);
+            }
+            catch (IllegalArgumentException e) {
+                // Stored value is not a BCrypt hash, so nothing can match it.
+                return false;
+            }
+            finally {
+                verifyNanos.recordSince(start);
+            }
+        });
+    }
+
+    private <T> T run(Callable<T> task) throws DataAccessException {
+        Future<T> future;
+        try {
+            future = pool.submit(task);
+        }
+        catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new DataAccessException("Service unavailable: too many password checks in progress");
+        }
+
+        try {
+            return future.get();
+        }
+        catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new DataAccessException("Interrupted while checking password");
+        }
+        catch (ExecutionException e) {
+            throw new DataAccessException("Error checking password: " + e.getCause().getMessage());
+        }
+    }
+}
@@ -15,9 +15,15 @@ import java.util.UUID;
 
 public class UserService {
     private final DataAccess dao;
+    private final PasswordHasher hasher;
 
     public UserService(DataAccess dao) {
+        this(dao, PasswordHasher.getDefault());
+    }
+
+    public UserService(DataAccess dao, PasswordHasher hasher) {
         this.dao = dao;
+        this.hasher = hasher;
     }
 
     public RegisterResult register(RegisterRequest request) throws DataAccessException {
@@ -25,9 +31,15 @@ public class UserService {
             throw new IllegalArgumentException("Missing required fields");
         }
 
-        UserData userRow = new UserData(request.username(), "", request.email());
+        // Checked before hashing so repeated duplicate sign-ups don't tie up
+        // the hash pool; createUser still catches the race.
+        if (dao.getUser(request.username()) != null) {
+            throw new DataAccessException("User already exists");
+        }
+
+        String passwordHash = hasher.hash(request.password());
+        UserData userRow = new UserData(request.username(), passwordHash, request.email());
         dao.createUser(userRow);
-        dao.storeUserPassword(request.username(), request.password());
 
         String token = UUID.randomUUID().toString();
         var authData = new AuthData(token, request.username());
@@ -46,7 +58,7 @@ public class UserService {
             throw new DataAccessException("Invalid username or password");
         }
 
-        boolean verified = dao.verifyUser(request.username(), request.password());
+        boolean verified = hasher.verify(request.password(), user.password());
         if (!verified) {
             throw new DataAccessException("Invalid username or password");
         }
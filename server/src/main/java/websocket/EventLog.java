@@ -0,0 +1,129 @@
+package websocket;
+
+import websocket.messages.ServerMessage;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Numbers every event broadcast to a game and keeps the most recent ones so a
+ * client that briefly lost its connection can RESUME from the last sequence
+ * number it saw instead of reloading the whole game.
+ *
+ * <p>A game's log is only appended to and read from that game's
+ * {@link GameExecutor} stripe. Logs for games nobody has touched in a while
+ * are evicted once more than {@code maxGames} are held.
+ */
+class EventLog {
+
+    /**
+     * One broadcast. Clients that asked for deltas get {@code delta} when it
+     * is set; everyone else gets {@code full}. {@code exceptUsername} did not
+     * receive the event live and is skipped on replay too.
+     */
+    static final class Event {
+        final long seq;
+        final String exceptUsername;
+        private final ServerMessage full;
+        private final ServerMessage delta;
+        private OutboundFrame fullFrame;
+        private OutboundFrame deltaFrame;
+
+        private Event(long seq, ServerMessage full, ServerMessage delta, String exceptUsername) {
+            this.seq = seq;
+            this.full = full;
+            this.delta = delta;
+            this.exceptUsername = exceptUsername;
+            full.seq = seq;
+            if (delta != null) {
+                delta.seq = seq;
+            }
+        }
+
+        OutboundFrame frameFor(boolean deltaUpdates) {
+            if (deltaUpdates && delta != null) {
+                if (deltaFrame == null) {
+                    deltaFrame = OutboundFrame.encode(delta);
+                }
+                return deltaFrame;
+            }
+            if (fullFrame == null) {
+                fullFrame = OutboundFrame.encode(full);
+            }
+            return fullFrame;
+        }
+    }
+
+    private static final class GameLog {
+        long lastSeq;
+        // Highest seq no longer held; resuming from below it needs a full reload.
+        long droppedThrough;
+        final ArrayDeque<Event> recent = new ArrayDeque<>();
+
+        GameLog(long start) {
+            lastSeq = start;
+            droppedThrough = start;
+        }
+    }
+
+    private final int eventsPerGame;
+    private final Map<Integer, GameLog> games;
+    // Shared by all games and started from the wall clock, so numbers keep
+    // increasing across a restart or an eviction and an old client's seq is
+    // never mistaken for a position in a newer log. Each game's numbers
+    // increase but may skip values.
+    private final AtomicLong clock = new AtomicLong(System.currentTimeMillis() * 1000);
+
+    EventLog(int eventsPerGame, int maxGames) {
+        this.eventsPerGame = eventsPerGame;
+        this.games = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, GameLog> eldest) {
+                return size() > maxGames;
+            }
+        };
+    }
+
+    Event append(int gameId, ServerMessage full, ServerMessage delta, String exceptUsername) {
+        GameLog log = log(gameId);
+        log.lastSeq = clock.incrementAndGet();
+        Event event = new Event(log.lastSeq, full, delta, exceptUsername);
+        log.recent.addLast(event);
+        if (log.recent.size() > eventsPerGame) {
+            log.droppedThrough = log.recent.removeFirst().seq;
+        }
+        return event;
+    }
+
+    long lastSeq(int gameId) {
+        return log(gameId).lastSeq;
+    }
+
+    /**
+     * Events after {@code seq}, oldest first, or null if some of them are no
+     * longer held and the client needs a full reload.
+     */
+    List<Event> since(int gameId, long seq) {
+        GameLog log = log(gameId);
+        if (seq > log.lastSeq || seq < log.droppedThrough) {
+            return null;
+        }
+        List<Event> missed = new ArrayList<>();
+        for (Event event : log.recent) {
+            if (event.seq > seq) {
+                missed.add(event);
+            }
+        }
+        return missed;
+    }
+
+    private GameLog log(int gameId) {
+        synchronized (games) {
+            return games.computeIfAbsent(gameId, id -> new GameLog(clock.get()));
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package websocket;
+
+import metrics.Metrics;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs websocket commands on a fixed set of single-threaded stripes chosen by
+ * game ID. Every command for one game goes to the same stripe, so a game's
+ * read-move-write sequences never interleave, while different games spread
+ * across all the stripes and run in parallel.
+ */
+public class GameExecutor {
+
+    private final ThreadPoolExecutor[] stripes;
+
+    private final Metrics.Distribution queueNanos = Metrics.distribution("ws.command.queue.nanos");
+    private final Metrics.Distribution runNanos = Metrics.distribution("ws.command.run.nanos");
+    private final Metrics.Counter failures = Metrics.counter("ws.command.failures");
+
+    public GameExecutor(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be positive: " + threads);
+        }
+        stripes = new ThreadPoolExecutor[threads];
+        for (int i = 0; i < threads; i++) {
+            String name = "ws-game-" + i;
+            stripes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                    r -> {
+                        Thread t = new Thread(r, name);
+                        t.setDaemon(true);
+                        return t;
+                    });
+        }
+        Metrics.gauge("ws.command.queueDepth", () -> {
+            long depth = 0;
+            for (ThreadPoolExecutor stripe : stripes) {
+                depth += stripe.getQueue().size();
+            }
+            return depth;
+        });
+    }
+
+    /**
+     * Queues a task behind every earlier task for the same game. A task that
+     * throws is counted and logged; it does not stop the stripe.
+     */
+    public void execute(int gameID, Runnable task) {
+        long queued = System.nanoTime();
+        stripes[Math.floorMod(gameID, stripes.length)].execute(() -> {
+            long start = System.nanoTime();
+            queueNanos.record(start - queued);
+            try {
+                task.run();
+            }
+            catch (RuntimeException e) {
+                failures.increment();
+                System.out.println("Websocket command for game " + gameID + " failed: " + e);
+            }
+            finally {
+                runNanos.recordSince(start);
+            }
+        });
+    }
+
+    public void shutdown() {
+        for (ThreadPoolExecutor stripe : stripes) {
+            stripe.shutdownNow();
+        }
+    }
+}
@@ -1,57 +1,169 @@
 package websocket;
 
+import chess.ChessClock;
 import chess.ChessGame;
 import chess.ChessMove;
 import com.google.gson.Gson;
+import serialization.BinaryProtocol;
+import serialization.Serializer;
 import dataaccess.DataAccess;
-import dataaccess.DBDataAccess;
 import dataaccess.DataAccessException;
+import metrics.Metrics;
 import model.AuthData;
 import model.GameData;
-import service.GameService;
-import service.UserService;
 import websocket.commands.UserGameCommand;
 import websocket.messages.ServerMessage;
 
 import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.StatusCode;
+import org.eclipse.jetty.websocket.api.extensions.Frame;
 import org.eclipse.jetty.websocket.api.annotations.*;
 
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 @WebSocket
 public class GameWebSocketHandler {
 
-    private static final Gson GSON = new Gson();
-    private static final DataAccess DAO;
-    private static final GameService GAME_SERVICE;
-    private static final UserService USER_SERVICE;
-
-    static {
-        try {
-            DAO = new DBDataAccess();
-        } catch (DataAccessException e) { throw new RuntimeException(e); }
-        GAME_SERVICE = new GameService(DAO);
-        USER_SERVICE = new UserService(DAO);
+    private static final Gson GSON = Serializer.GSON;
+    private static final Metrics.Distribution FAN_OUT = Metrics.distribution("ws.broadcast.fanout");
+    private static final Metrics.Counter REPLAYED_EVENTS = Metrics.counter("ws.resume.replayedEvents");
+    private static final Metrics.Counter FULL_RESUMES = Metrics.counter("ws.resume.fullReloads");
+    private static final Metrics.Counter FLAG_FALLS = Metrics.counter("game.flagFalls");
+    private static final Metrics.Counter DEFLATE_SESSIONS = Metrics.counter("ws.compression.deflateSessions");
+    private static final Metrics.Counter PLAIN_SESSIONS = Metrics.counter("ws.compression.plainSessions");
+    private final DataAccess dao;
+    private final GameExecutor executor;
+    private final int outboundHighWaterMark;
+    private final Outbox.Policy slowConsumerPolicy;
+    private final ConcurrentHashMap<Session, Outbox> outboxes = new ConcurrentHashMap<>();
+    private final Set<Session> connected = ConcurrentHashMap.newKeySet();
+    private final EventLog events;
+    private final TimerWheel clocks;
+    private final ConcurrentHashMap<Integer, TimerWheel.Timeout> flagTimers = new ConcurrentHashMap<>();
+
+    private final Heartbeat heartbeat;
+
+    public GameWebSocketHandler(DataAccess dao, GameExecutor executor, int outboundHighWaterMark,
+                                Outbox.Policy slowConsumerPolicy, int resumeEventsPerGame, int resumeMaxGames,
+                                TimerWheel clocks, Heartbeat heartbeat) {
+        this.dao = dao;
+        this.executor = executor;
+        this.clocks = clocks;
+        this.heartbeat = heartbeat;
+        this.outboundHighWaterMark = outboundHighWaterMark;
+        this.slowConsumerPolicy = slowConsumerPolicy;
+        this.events = new EventLog(resumeEventsPerGame, resumeMaxGames);
+        Metrics.gauge("ws.outbound.queued", () -> {
+            long queued = 0;
+            for (Outbox outbox : outboxes.values()) {
+                queued += outbox.depth();
+            }
+            return queued;
+        });
     }
 
     @OnWebSocketConnect
-    public void onConnect(Session session) { /* nothing */ }
+    public void onConnect(Session session) {
+        connected.add(session);
+        heartbeat.track(session);
+        // Jetty accepts permessage-deflate, with the client's context-takeover
+        // terms, whenever the client offers it.
+        boolean deflate = session.getUpgradeResponse().getExtensions().stream()
+                .anyMatch(e -> "permessage-deflate".equals(e.getName()));
+        (deflate ? DEFLATE_SESSIONS : PLAIN_SESSIONS).increment();
+    }
+
+    @OnWebSocketFrame
+    public void onFrame(Session session, Frame frame) {
+        if (frame.getType() == Frame.Type.PONG) {
+            heartbeat.pong(session, frame.getPayload());
+        }
+    }
 
     @OnWebSocketClose
     public void onClose(Session session, int status, String reason) {
-        Lobby.remove(session);
+        // A reaped session is cleaned up by onReaped and again when Jetty sees
+        // the disconnect; only the first gets through.
+        if (!connected.remove(session)) {
+            return;
+        }
+        heartbeat.untrack(session);
+        Outbox outbox = outboxes.remove(session);
+        if (outbox != null) {
+            outbox.close();
+        }
+        // Queued behind the game's pending commands so a late CONNECT can't re-add it.
+        Lobby.Client client = Lobby.clientFor(session);
+        if (client == null) {
+            Lobby.remove(session);
+        } else {
+            executor.execute(client.gameId(), () -> Lobby.remove(session));
+        }
+    }
+
+    /**
+     * Cleans up after the {@link Heartbeat} has dropped a silent session.
+     */
+    public void onReaped(Session session) {
+        onClose(session, StatusCode.ABNORMAL, "heartbeat timeout");
     }
 
     @OnWebSocketError
     public void onError(Session s, Throwable err) { err.printStackTrace(); }
 
+    /**
+     * Parses on the Jetty thread, then hands the command to the game's stripe
+     * so commands for one game are applied strictly in arrival order.
+     */
     @OnWebSocketMessage
     public void onMessage(Session session, String json) {
+        heartbeat.seen(session);
+        UserGameCommand cmd;
+        try {
+            cmd = GSON.fromJson(json, UserGameCommand.class);
+        } catch (Exception ex) {
+            send(session, ServerMessage.error(ex.getMessage()));
+            return;
+        }
+        accept(session, cmd);
+    }
+
+    /**
+     * Binary frames use {@link BinaryProtocol}. The first one switches the
+     * session to binary replies as well; JSON stays the default otherwise.
+     */
+    @OnWebSocketMessage
+    public void onMessage(Session session, byte[] buf, int offset, int length) {
+        heartbeat.seen(session);
+        outbox(session).useBinary();
+        UserGameCommand cmd;
+        try {
+            cmd = BinaryProtocol.decodeCommand(buf, offset, length);
+        } catch (Exception ex) {
+            send(session, ServerMessage.error(ex.getMessage()));
+            return;
+        }
+        accept(session, cmd);
+    }
+
+    private void accept(Session session, UserGameCommand cmd) {
+        if (cmd == null || cmd.getCommandType() == null || cmd.getGameID() == null) {
+            send(session, ServerMessage.error("bad request: missing command type or game id"));
+            return;
+        }
+        executor.execute(cmd.getGameID(), () -> dispatch(session, cmd));
+    }
+
+    private void dispatch(Session session, UserGameCommand cmd) {
         try {
-            UserGameCommand cmd = GSON.fromJson(json, UserGameCommand.class);
             switch (cmd.getCommandType()) {
                 case CONNECT   -> handleConnect(session, cmd);
                 case MAKE_MOVE -> handleMove(session, cmd);
                 case LEAVE     -> handleLeave(session, cmd);
                 case RESIGN    -> handleResign(session, cmd);
+                case RESUME    -> handleResume(session, cmd);
             }
         } catch (Exception ex) {     // any unexpected exception
             send(session, ServerMessage.error(ex.getMessage()));
@@ -59,8 +171,8 @@ public class GameWebSocketHandler {
     }
 
     private void handleConnect(Session s, UserGameCommand cmd) throws DataAccessException {
-        AuthData auth = DAO.getAuth(cmd.getAuthToken());
-        GameData game = DAO.getGame(cmd.getGameID());
+        AuthData auth = dao.getAuth(cmd.getAuthToken());
+        GameData game = dao.getGame(cmd.getGameID());
 
         if (auth == null || game == null) {
             send(s, ServerMessage.error("invalid auth or game id"));
@@ -75,20 +187,86 @@ public class GameWebSocketHandler {
             color = ChessGame.TeamColor.BLACK;
         }
 
-        Lobby.Client me = new Lobby.Client(s, auth.username(), game.gameID(), color);
+        Lobby.Client previous = Lobby.clientFor(s);
+        boolean rejoin = previous != null && previous.gameId() == game.gameID();
+        Lobby.Client me = new Lobby.Client(s, auth.username(), game.gameID(), color, cmd.deltaUpdates);
         Lobby.add(me);
+        if (!s.isOpen()) {
+            // Closed while this command was queued.
+            Lobby.remove(s);
+            return;
+        }
 
-        send(s, ServerMessage.loadGame(game.game()));
+        ServerMessage load = ServerMessage.loadGame(game.game());
+        load.seq = events.lastSeq(game.gameID());
+        send(s, load);
+        if (!flagTimers.containsKey(game.gameID())) {
+            // Timers don't survive a restart; re-arm when someone comes back.
+            scheduleFlag(game);
+        }
+        if (rejoin) {
+            // A client resyncing after a bad delta; the others already know it's here.
+            return;
+        }
 
         String note = (color == null)
                 ? auth.username() + " connected as an observer"
                 : auth.username() + " connected as " + color;
-        broadcastExcept(game.gameID(), s, ServerMessage.notification(note));
+        broadcastExcept(game.gameID(), s, auth.username(), ServerMessage.notification(note));
+    }
+
+    /**
+     * Rejoins a game on a new connection without announcing it, then sends
+     * only the events after {@code cmd.lastSeq}. If those are no longer
+     * buffered, the client gets a full LOAD_GAME as if it had connected.
+     */
+    private void handleResume(Session s, UserGameCommand cmd) throws DataAccessException {
+        AuthData auth = dao.getAuth(cmd.getAuthToken());
+        if (auth == null) {
+            send(s, ServerMessage.error("invalid auth or game id"));
+            return;
+        }
+        int gameID = cmd.getGameID();
+        List<EventLog.Event> missed = events.since(gameID, cmd.lastSeq);
+        GameData game = null;
+        if (missed == null) {
+            game = dao.getGame(gameID);
+            if (game == null) {
+                send(s, ServerMessage.error("invalid auth or game id"));
+                return;
+            }
+        }
+
+        Lobby.Client previous = Lobby.clientFor(s);
+        ChessGame.TeamColor color = (previous == null) ? null : previous.color();
+        if (game != null) {
+            color = auth.username().equals(game.whiteUsername()) ? ChessGame.TeamColor.WHITE
+                    : auth.username().equals(game.blackUsername()) ? ChessGame.TeamColor.BLACK : null;
+        }
+        Lobby.add(new Lobby.Client(s, auth.username(), gameID, color, cmd.deltaUpdates));
+        if (!s.isOpen()) {
+            Lobby.remove(s);
+            return;
+        }
+
+        if (missed == null) {
+            FULL_RESUMES.increment();
+            ServerMessage load = ServerMessage.loadGame(game.game());
+            load.seq = events.lastSeq(gameID);
+            send(s, load);
+            return;
+        }
+        REPLAYED_EVENTS.add(missed.size());
+        for (EventLog.Event event : missed) {
+            if (!auth.username().equals(event.exceptUsername)) {
+                write(s, event.frameFor(cmd.deltaUpdates));
+            }
+        }
     }
 
     private void handleMove(Session s, UserGameCommand cmd) throws DataAccessException {
-        AuthData auth = DAO.getAuth(cmd.getAuthToken());
-        GameData gameData = DAO.getGame(cmd.getGameID());
+        AuthData auth = dao.getAuth(cmd.getAuthToken());
+        GameData gameData = dao.getGame(cmd.getGameID());
         if (auth == null || gameData == null) {
             send(s, ServerMessage.error("invalid auth or game id"));
             return;
@@ -107,24 +285,52 @@ public class GameWebSocketHandler {
             return;
         }
 
+        ChessClock clock = gameData.game().getClock();
+        long now = System.currentTimeMillis();
+        if (clock != null && clock.isRunning() && clock.remainingMillis(currentTurn, currentTurn, now) <= 0) {
+            // The timer hasn't fired yet, but the flag has already fallen.
+            flagFall(gameData, now);
+            return;
+        }
+
         ChessMove move = cmd.getMove();
         try {
             gameData.game().makeMove(move);
-            DAO.updateGame(gameData);
+            ChessGame.TeamColor next = gameData.game().getTeamTurn();
+            boolean checkmate = gameData.game().isInCheckmate(next);
+            boolean stalemate = !checkmate && gameData.game().isInStalemate(next);
+            if (clock != null) {
+                clock.punch(currentTurn, now);
+            }
+            if (checkmate || stalemate) {
+                // Marks the game finished so the archiver can pick it up.
+                gameData.game().setGameOver(true);
+                if (clock != null) {
+                    clock.stop(next, now);
+                }
+            }
+            dao.updateGame(gameData);
+            scheduleFlag(gameData);
 
-            ServerMessage load = ServerMessage.loadGame(gameData.game());
-            broadcast(gameData.gameID(), load);
+            broadcastUpdate(gameData.gameID(), move, gameData.game());
 
             String desc = sender + " moved " +
                     move.getStartPosition() + " -> " + move.getEndPosition();
-            broadcastExcept(gameData.gameID(), s, ServerMessage.notification(desc));
-
-            if (gameData.game().isInCheckmate(gameData.game().getTeamTurn())) {
-                broadcast(gameData.gameID(), ServerMessage.notification(sender + " is in checkmate"));
-            } else if (gameData.game().isInCheck(gameData.game().getTeamTurn())) {
-                broadcast(gameData.gameID(), ServerMessage.notification(sender + " is in check"));
+            broadcastExcept(gameData.gameID(), s, sender, ServerMessage.notification(desc));
+
+            String opponent = (next == ChessGame.TeamColor.WHITE)
+                    ? gameData.whiteUsername() : gameData.blackUsername();
+            if (checkmate) {
+                broadcast(gameData.gameID(), ServerMessage.notification(opponent + " is in checkmate"));
+            } else if (stalemate) {
+                broadcast(gameData.gameID(), ServerMessage.notification("Stalemate: the game is a draw"));
+            } else if (gameData.game().isInCheck(next)) {
+                broadcast(gameData.gameID(), ServerMessage.notification(opponent + " is in check"));
             }
 
+        } catch (DataAccessException ex) {
+            // Another writer got there first; the move was not saved.
+            send(s, ServerMessage.error(ex.getMessage()));
         } catch (Exception ex) {
             System.out.println(ex.toString());
             System.out.println("Board snapshot after illegal move: " + gameData.game().getBoard());
@@ -133,32 +339,35 @@ public class GameWebSocketHandler {
     }
 
     private void handleLeave(Session s, UserGameCommand cmd) throws DataAccessException {
-        AuthData auth = DAO.getAuth(cmd.getAuthToken());
-        GameData game = DAO.getGame(cmd.getGameID());
-
-        if (auth != null && game != null) {
-            String username = auth.username();
-            boolean updated = false;
-            if (username.equals(game.whiteUsername())) {
-                game = new GameData(game.gameID(), null, game.blackUsername(), game.gameName(), game.game());
-                updated = true;
-            } else if (username.equals(game.blackUsername())) {
-                game = new GameData(game.gameID(), game.whiteUsername(), null, game.gameName(), game.game());
-                updated = true;
-            }
-            if (updated) {
-                DAO.updateGame(game);
+        AuthData auth = dao.getAuth(cmd.getAuthToken());
+        try {
+            GameData game = dao.getGame(cmd.getGameID());
+            // A finished game keeps its players; it may already be archived
+            // and no longer updatable.
+            if (auth != null && game != null && !game.game().isGameOver()) {
+                String username = auth.username();
+                if (username.equals(game.whiteUsername())) {
+                    dao.updateGame(new GameData(game.gameID(), null, game.blackUsername(), game.gameName(),
+                            game.game(), game.version()));
+                } else if (username.equals(game.blackUsername())) {
+                    dao.updateGame(new GameData(game.gameID(), game.whiteUsername(), null, game.gameName(),
+                            game.game(), game.version()));
+                }
             }
         }
+        finally {
+            // Leaves the room even if the seat couldn't be cleared.
+            Lobby.remove(s);
+        }
 
-        Lobby.remove(s);
-        broadcastExcept(cmd.getGameID(), s, ServerMessage.notification("A player left the game"));
+        broadcastExcept(cmd.getGameID(), s, (auth == null) ? null : auth.username(),
+                ServerMessage.notification("A player left the game"));
     }
 
 
     private void handleResign(Session s, UserGameCommand cmd) throws DataAccessException {
-        AuthData auth = DAO.getAuth(cmd.getAuthToken());
-        GameData game = DAO.getGame(cmd.getGameID());
+        AuthData auth = dao.getAuth(cmd.getAuthToken());
+        GameData game = dao.getGame(cmd.getGameID());
         if (auth == null || game == null) {
             send(s, ServerMessage.error("invalid auth or game id"));
             return;
@@ -175,24 +384,147 @@ public class GameWebSocketHandler {
         }
 
         game.game().setGameOver(true);
-        DAO.updateGame(game);
+        if (game.game().getClock() != null) {
+            game.game().getClock().stop(game.game().getTeamTurn(), System.currentTimeMillis());
+        }
+        dao.updateGame(game);
+        scheduleFlag(game);
         broadcast(game.gameID(), ServerMessage.notification(auth.username() + " resigned"));
     }
 
+    /**
+     * Keeps exactly one flag timer per running clock, due when the side to
+     * move runs out of time. Cancels it once the game is over or untimed.
+     */
+    private void scheduleFlag(GameData game) {
+        ChessClock clock = game.game().getClock();
+        TimerWheel.Timeout previous;
+        if (clock == null || !clock.isRunning() || game.game().isGameOver()) {
+            previous = flagTimers.remove(game.gameID());
+        } else {
+            int gameID = game.gameID();
+            long deadline = clock.flagDeadline(game.game().getTeamTurn());
+            previous = flagTimers.put(gameID,
+                    clocks.schedule(deadline, () -> executor.execute(gameID, () -> checkFlag(gameID))));
+        }
+        if (previous != null) {
+            previous.cancel();
+        }
+    }
+
+    /**
+     * Starts watching a game's clock, for example once it has been started
+     * from outside a websocket command.
+     */
+    public void armClock(int gameID) {
+        executor.execute(gameID, () -> checkFlag(gameID));
+    }
+
+    /**
+     * Arms a flag timer for every running clock. Timers only live in memory,
+     * so this runs once at startup; without it a game abandoned before a
+     * restart would never run out of time.
+     */
+    public int armClocks() throws DataAccessException {
+        int armed = 0;
+        for (GameData game : dao.listGames()) {
+            ChessClock clock = game.game().getClock();
+            if (clock != null && clock.isRunning() && !game.game().isGameOver()) {
+                armClock(game.gameID());
+                armed++;
+            }
+        }
+        return armed;
+    }
+
+    /**
+     * Runs on the game's stripe when its flag timer fires. The game is
+     * reloaded, since a move may have landed while the timer was queued.
+     */
+    private void checkFlag(int gameID) {
+        try {
+            GameData game = dao.getGame(gameID);
+            if (game == null) {
+                flagTimers.remove(gameID);
+                return;
+            }
+            ChessClock clock = game.game().getClock();
+            long now = System.currentTimeMillis();
+            ChessGame.TeamColor toMove = game.game().getTeamTurn();
+            if (!game.game().isGameOver() && clock != null && clock.isRunning()
+                    && clock.remainingMillis(toMove, toMove, now) <= 0) {
+                flagFall(game, now);
+            } else {
+                scheduleFlag(game);
+            }
+        }
+        catch (DataAccessException e) {
+            System.out.println("Failed to check clock for game " + gameID + ": " + e.getMessage());
+        }
+    }
+
+    private void flagFall(GameData game, long now) throws DataAccessException {
+        ChessGame.TeamColor loser = game.game().getTeamTurn();
+        game.game().setGameOver(true);
+        game.game().getClock().stop(loser, now);
+        dao.updateGame(game);
+        scheduleFlag(game);
+        FLAG_FALLS.increment();
+
+        String loserName = (loser == ChessGame.TeamColor.WHITE) ? game.whiteUsername() : game.blackUsername();
+        String winnerName = (loser == ChessGame.TeamColor.WHITE) ? game.blackUsername() : game.whiteUsername();
+        broadcast(game.gameID(), ServerMessage.loadGame(game.game()));
+        broadcast(game.gameID(), ServerMessage.notification(
+                (loserName == null ? loser.toString() : loserName) + " ran out of time; "
+                        + (winnerName == null ? "the opponent" : winnerName) + " wins"));
+    }
+
     private void send(Session s, ServerMessage m) {
+        write(s, OutboundFrame.encode(m));
+    }
+
+    private void write(Session s, OutboundFrame frame) {
         if (s.isOpen()) {
-            s.getRemote().sendStringByFuture(GSON.toJson(m));
+            outbox(s).offer(frame);
         }
     }
 
+    private Outbox outbox(Session s) {
+        return outboxes.computeIfAbsent(s, k -> new Outbox(k, outboundHighWaterMark, slowConsumerPolicy));
+    }
+
+    /**
+     * Numbers the message as the game's next event and writes it to every
+     * client in the game. The frame is encoded once and shared.
+     */
     private void broadcast(int gameId, ServerMessage m) {
-        Lobby.clientsIn(gameId).forEach(c -> send(c.session(), m));
+        publish(gameId, events.append(gameId, m, null, null), null);
     }
 
-    private void broadcastExcept(int gameId, Session except, ServerMessage m) {
-        Lobby.clientsIn(gameId).stream()
-                .filter(c -> !c.session().equals(except))
-                .forEach(c -> send(c.session(), m));
+    private void broadcastExcept(int gameId, Session except, String exceptUsername, ServerMessage m) {
+        publish(gameId, events.append(gameId, m, null, exceptUsername), except);
+    }
+
+    /**
+     * Sends the new state after a move: a MOVE delta to clients that asked for
+     * one and a full LOAD_GAME to everyone else. Each form is encoded at most
+     * once.
+     */
+    private void broadcastUpdate(int gameId, ChessMove move, ChessGame after) {
+        EventLog.Event event = events.append(gameId,
+                ServerMessage.loadGame(after), ServerMessage.move(move, after), null);
+        publish(gameId, event, null);
+    }
+
+    private void publish(int gameId, EventLog.Event event, Session except) {
+        int sent = 0;
+        for (Lobby.Client c : Lobby.clientsIn(gameId)) {
+            if (!c.session().equals(except)) {
+                write(c.session(), event.frameFor(c.deltaUpdates()));
+                sent++;
+            }
+        }
+        FAN_OUT.record(sent);
     }
 
 }
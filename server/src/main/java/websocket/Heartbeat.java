@@ -0,0 +1,176 @@
+package websocket;
+
+import metrics.Metrics;
+import org.eclipse.jetty.websocket.api.Session;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Server-driven liveness checks for websocket sessions. One scheduled sweep
+ * pings every tracked session and reaps, in the same pass, any session that
+ * has sent nothing (no message and no pong) for longer than the timeout. A
+ * half-open TCP connection never answers, so it is dropped within one
+ * timeout instead of receiving broadcasts forever.
+ *
+ * <p>Each ping carries the send time, so the matching pong gives a
+ * round-trip time without keeping per-ping state.
+ *
+ * <p>Jetty's {@code sendPing} blocks while the peer's TCP buffer is full, so
+ * pings go out on their own threads and the sweep waits at most
+ * {@code pingTimeout} for them. A peer whose ping is still stuck after that
+ * is reaped like a silent one, and the rest of the sweep carries on.
+ */
+public class Heartbeat {
+
+    private final long intervalMillis;
+    private final long timeoutNanos;
+    private final long pingTimeoutNanos;
+    private final Map<Session, Long> lastSeen = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+    private ExecutorService pinger;
+
+    private final Metrics.Counter reaped = Metrics.counter("ws.sessions.reaped");
+    private final Metrics.Counter stalledPings = Metrics.counter("ws.pings.stalled");
+    private final Metrics.Distribution rttMicros = Metrics.distribution("ws.rtt.micros");
+
+    public Heartbeat(Duration interval, Duration timeout, Duration pingTimeout) {
+        this.intervalMillis = interval.toMillis();
+        this.timeoutNanos = timeout.toNanos();
+        this.pingTimeoutNanos = pingTimeout.toNanos();
+        Metrics.gauge("ws.sessions.live", lastSeen::size);
+    }
+
+    /**
+     * Starts sweeping. {@code onReap} is called for each session dropped for
+     * silence, after its connection has been torn down.
+     */
+    public synchronized void start(Consumer<Session> onReap) {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ws-heartbeat");
+            t.setDaemon(true);
+            return t;
+        });
+        AtomicInteger pingThreads = new AtomicInteger();
+        // Unbounded, but a thread is only held by a stuck ping until that peer is disconnected.
+        pinger = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "ws-ping-" + pingThreads.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> sweep(onReap), intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+            pinger.shutdownNow();
+            pinger = null;
+        }
+    }
+
+    public void track(Session session) {
+        lastSeen.put(session, System.nanoTime());
+    }
+
+    public void untrack(Session session) {
+        lastSeen.remove(session);
+    }
+
+    /**
+     * Any inbound traffic proves the peer is alive.
+     */
+    public void seen(Session session) {
+        lastSeen.replace(session, System.nanoTime());
+    }
+
+    public void pong(Session session, ByteBuffer payload) {
+        long now = System.nanoTime();
+        lastSeen.replace(session, now);
+        if (payload != null && payload.remaining() == Long.BYTES) {
+            rttMicros.record((now - payload.getLong(payload.position())) / 1000);
+        }
+    }
+
+    private void sweep(Consumer<Session> onReap) {
+        long now = System.nanoTime();
+        List<Session> dead = new ArrayList<>();
+        Map<Session, Future<?>> pings = new LinkedHashMap<>();
+        ByteBuffer ping = ByteBuffer.allocate(Long.BYTES).putLong(0, now);
+        lastSeen.forEach((session, seen) -> {
+            if (!session.isOpen()) {
+                lastSeen.remove(session, seen);
+            } else if (now - seen > timeoutNanos) {
+                // Only if nothing has arrived since, or it was untracked meanwhile.
+                if (lastSeen.remove(session, seen)) {
+                    dead.add(session);
+                }
+            } else {
+                ByteBuffer payload = ping.duplicate();
+                pings.put(session, pinger.submit(() -> {
+                    session.getRemote().sendPing(payload);
+                    return null;
+                }));
+            }
+        });
+
+        long deadline = System.nanoTime() + pingTimeoutNanos;
+        for (Map.Entry<Session, Future<?>> entry : pings.entrySet()) {
+            try {
+                entry.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                continue;
+            }
+            catch (TimeoutException e) {
+                entry.getValue().cancel(true);
+                stalledPings.increment();
+            }
+            catch (ExecutionException e) {
+                // The ping failed, so the connection is already broken.
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (lastSeen.remove(entry.getKey()) != null) {
+                dead.add(entry.getKey());
+            }
+        }
+
+        for (Session session : dead) {
+            try {
+                // No close handshake: the peer is not there to answer it.
+                // This also fails a ping still blocked on the connection.
+                session.disconnect();
+            }
+            catch (IOException e) {
+                // already gone
+            }
+            reaped.increment();
+            try {
+                onReap.accept(session);
+            }
+            catch (RuntimeException e) {
+                System.out.println("Failed to clean up reaped session: " + e);
+            }
+        }
+    }
+}
@@ -4,22 +4,81 @@ import org.eclipse.jetty.websocket.api.Session;
 import chess.ChessGame;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
 
+/**
+ * Registry of which websocket sessions are watching which game. Rooms hold
+ * copy-on-write sets, so broadcasts iterate a stable snapshot while joins and
+ * leaves happen on other threads. Each session belongs to at most one room
+ * and is indexed directly, so a disconnect touches only that room. Rooms are
+ * dropped as soon as their last client leaves.
+ */
 public class Lobby {
     public record Client(Session session,
                          String username,
                          int gameId,
-                         ChessGame.TeamColor color) { }
+                         ChessGame.TeamColor color,
+                         boolean deltaUpdates) { }
 
-    private static final Map<Integer, Set<Client>> ROOMS = new HashMap<>();
+    private static final ConcurrentHashMap<Integer, Set<Client>> ROOMS = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<Session, Client> BY_SESSION = new ConcurrentHashMap<>();
 
+    /**
+     * Adds a client to its game's room. A session that was already in a room
+     * is moved out of it first.
+     */
     public static void add(Client c) {
-        ROOMS.computeIfAbsent(c.gameId(), g -> new HashSet<>()).add(c);
+        Client previous = BY_SESSION.put(c.session(), c);
+        if (previous != null) {
+            leaveRoom(previous);
+        }
+        ROOMS.compute(c.gameId(), (id, room) -> {
+            Set<Client> members = (room == null) ? new CopyOnWriteArraySet<>() : room;
+            members.add(c);
+            return members;
+        });
+        // A remove, or another add, for this session may have run between the
+        // index update and the room insert and missed us; undo the insert.
+        if (BY_SESSION.get(c.session()) != c) {
+            leaveRoom(c);
+        }
     }
+
     public static void remove(Session s) {
-        ROOMS.values().forEach(set -> set.removeIf(c -> c.session().equals(s)));
+        Client c = BY_SESSION.remove(s);
+        if (c != null) {
+            leaveRoom(c);
+        }
+    }
+
+    public static Client clientFor(Session s) {
+        return BY_SESSION.get(s);
     }
+
+    /**
+     * The clients watching a game. The returned set is read-only and safe to
+     * iterate while other threads join or leave.
+     */
     public static Set<Client> clientsIn(int gameId) {
-        return ROOMS.getOrDefault(gameId, Set.of());
+        Set<Client> room = ROOMS.get(gameId);
+        return (room == null) ? Set.of() : Collections.unmodifiableSet(room);
+    }
+
+    public static int roomCount() {
+        return ROOMS.size();
+    }
+
+    public static int sessionCount() {
+        return BY_SESSION.size();
+    }
+
+    private static void leaveRoom(Client c) {
+        // compute holds the room's bin lock, so a concurrent add can't land in
+        // a room that is being dropped.
+        ROOMS.computeIfPresent(c.gameId(), (id, room) -> {
+            room.remove(c);
+            return room.isEmpty() ? null : room;
+        });
     }
 }
@@ -0,0 +1,76 @@
+package websocket;
+
+import metrics.Metrics;
+import serialization.BinaryProtocol;
+import serialization.Serializer;
+import websocket.messages.ServerMessage;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A server message encoded for the wire. Broadcasts encode once and hand the
+ * same immutable frame to every recipient instead of serializing the board
+ * again for each one. The JSON and binary forms are each built the first time
+ * a recipient needs them, which may be on a Jetty write callback well after
+ * the event. That is safe because {@link ServerMessage} factories snapshot the
+ * game and clock they are given. Two threads racing to build one form just
+ * produce equal copies.
+ */
+final class OutboundFrame {
+    private static final Metrics.Distribution ENCODE_NANOS = Metrics.distribution("ws.encode.nanos");
+    private static final Metrics.Distribution FRAME_CHARS = Metrics.distribution("ws.frame.chars");
+    private static final Metrics.Distribution BINARY_ENCODE_NANOS = Metrics.distribution("ws.encode.binary.nanos");
+    private static final Metrics.Distribution BINARY_FRAME_BYTES = Metrics.distribution("ws.frame.binary.bytes");
+
+    private final ServerMessage message;
+    private volatile String text;
+    private volatile ByteBuffer binary;
+
+    private OutboundFrame(ServerMessage message) {
+        this.message = message;
+    }
+
+    static OutboundFrame encode(ServerMessage message) {
+        return new OutboundFrame(message);
+    }
+
+    ServerMessage message() {
+        return message;
+    }
+
+    String text() {
+        String encoded = text;
+        if (encoded == null) {
+            long start = System.nanoTime();
+            encoded = Serializer.GSON.toJson(message);
+            ENCODE_NANOS.recordSince(start);
+            FRAME_CHARS.record(encoded.length());
+            text = encoded;
+        }
+        return encoded;
+    }
+
+    /**
+     * The binary form, as a fresh read-only view so each write has its own
+     * position.
+     */
+    ByteBuffer binary() {
+        ByteBuffer encoded = binary;
+        if (encoded == null) {
+            long start = System.nanoTime();
+            encoded = ByteBuffer.wrap(BinaryProtocol.encodeMessage(message)).asReadOnlyBuffer();
+            BINARY_ENCODE_NANOS.recordSince(start);
+            BINARY_FRAME_BYTES.record(encoded.remaining());
+            binary = encoded;
+        }
+        return encoded.duplicate();
+    }
+
+    /**
+     * True for full-board frames, which make any earlier unsent full board
+     * pointless.
+     */
+    boolean supersedesEarlier() {
+        return message.getServerMessageType() == ServerMessage.ServerMessageType.LOAD_GAME;
+    }
+}
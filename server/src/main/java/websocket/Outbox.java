@@ -0,0 +1,147 @@
+package websocket;
+
+import metrics.Metrics;
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.StatusCode;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+/**
+ * Bounded queue of frames waiting to go out on one session. Only one write is
+ * handed to Jetty at a time; the next is started from the previous write's
+ * callback. A client that reads slowly therefore backs up here, where the
+ * queue is capped, instead of in Jetty's unbounded buffers.
+ *
+ * <p>A queued LOAD_GAME that has not been written yet is replaced by a newer
+ * one, since only the latest board matters. Once the queue reaches its
+ * high-water mark the {@link Policy} decides what happens to the session.
+ */
+public class Outbox implements WriteCallback {
+
+    public enum Policy {
+        /** Close the session; the client reconnects and gets a fresh board. */
+        DISCONNECT,
+        /** Keep the session and discard the new frame. */
+        DROP_NEWEST
+    }
+
+    static final Metrics.Counter COALESCED = Metrics.counter("ws.outbound.coalesced");
+    static final Metrics.Counter DROPPED = Metrics.counter("ws.outbound.dropped");
+    static final Metrics.Counter DISCONNECTED = Metrics.counter("ws.outbound.slowDisconnects");
+    static final Metrics.Distribution DEPTH = Metrics.distribution("ws.outbound.depth");
+
+    private final Session session;
+    private final int highWaterMark;
+    private final Policy policy;
+    private volatile boolean binary;
+
+    // guarded by this
+    private final ArrayDeque<OutboundFrame> queue = new ArrayDeque<>();
+    private boolean writing;
+    private boolean closed;
+
+    Outbox(Session session, int highWaterMark, Policy policy) {
+        this.session = session;
+        this.highWaterMark = highWaterMark;
+        this.policy = policy;
+    }
+
+    void offer(OutboundFrame frame) {
+        OutboundFrame next;
+        boolean disconnect = false;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            if (frame.supersedesEarlier()) {
+                Iterator<OutboundFrame> it = queue.iterator();
+                while (it.hasNext()) {
+                    if (it.next().supersedesEarlier()) {
+                        it.remove();
+                        COALESCED.increment();
+                    }
+                }
+            }
+            if (queue.size() < highWaterMark) {
+                queue.add(frame);
+                DEPTH.record(queue.size());
+            } else if (policy == Policy.DROP_NEWEST) {
+                DROPPED.increment();
+            } else {
+                disconnect = true;
+                closed = true;
+                queue.clear();
+                DISCONNECTED.increment();
+            }
+            next = takeIfIdle();
+        }
+        if (disconnect) {
+            session.close(StatusCode.POLICY_VIOLATION, "Client is not keeping up");
+        } else if (next != null) {
+            write(next);
+        }
+    }
+
+    /**
+     * Switches this session to binary frames for everything not yet written.
+     */
+    void useBinary() {
+        binary = true;
+    }
+
+    synchronized int depth() {
+        return queue.size();
+    }
+
+    synchronized void close() {
+        closed = true;
+        queue.clear();
+    }
+
+    @Override
+    public void writeSuccess() {
+        OutboundFrame next;
+        synchronized (this) {
+            writing = false;
+            next = takeIfIdle();
+        }
+        if (next != null) {
+            write(next);
+        }
+    }
+
+    @Override
+    public void writeFailed(Throwable x) {
+        close();
+    }
+
+    // caller holds the lock
+    private OutboundFrame takeIfIdle() {
+        if (writing || closed || queue.isEmpty()) {
+            return null;
+        }
+        writing = true;
+        return queue.poll();
+    }
+
+    private void write(OutboundFrame frame) {
+        if (!session.isOpen()) {
+            close();
+            return;
+        }
+        try {
+            if (binary) {
+                session.getRemote().sendBytes(frame.binary(), this);
+            } else {
+                session.getRemote().sendString(frame.text(), this);
+            }
+        }
+        catch (RuntimeException e) {
+            // No callback will come for this write, so nothing would ever
+            // clear the in-flight flag; give up on the session instead.
+            close();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package websocket;
+
+import metrics.Metrics;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hashed timer wheel driven by one daemon thread. A timeout lands in the
+ * bucket for its deadline modulo the wheel size, along with the number of
+ * full turns still to wait. Scheduling and cancelling are O(1) and lock-free;
+ * each tick only walks the one bucket under the hand. Tens of thousands of
+ * pending timeouts therefore cost no more than a few, with no thread or
+ * scheduled task per timeout.
+ *
+ * <p>Timeouts fire on the wheel thread, so tasks should hand real work off
+ * elsewhere. Deadlines are only as precise as the tick.
+ */
+public class TimerWheel {
+
+    public static final class Timeout {
+        private final long deadline;
+        private final Runnable task;
+        private long rounds;
+        private volatile boolean cancelled;
+
+        private Timeout(long deadline, Runnable task) {
+            this.deadline = deadline;
+            this.task = task;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private final long tickMillis;
+    private final List<List<Timeout>> buckets;
+    private final ConcurrentLinkedQueue<Timeout> incoming = new ConcurrentLinkedQueue<>();
+    private final Thread worker;
+    private final long startMillis;
+    private volatile boolean stopped;
+
+    // only touched by the worker thread
+    private long tick;
+
+    private final Metrics.Counter fired = Metrics.counter("timer.fired");
+    private final Metrics.Distribution tickNanos = Metrics.distribution("timer.tick.nanos");
+
+    public TimerWheel(Duration tick, int wheelSize, String name) {
+        this.tickMillis = Math.max(1, tick.toMillis());
+        this.buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        this.startMillis = System.currentTimeMillis();
+        this.worker = new Thread(this::run, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+        Metrics.gauge(name + ".pending", () -> {
+            long pending = incoming.size();
+            for (List<Timeout> bucket : buckets) {
+                synchronized (bucket) {
+                    pending += bucket.size();
+                }
+            }
+            return pending;
+        });
+    }
+
+    /**
+     * Runs {@code task} at or shortly after {@code deadlineMillis}, an epoch
+     * time. A deadline in the past fires on the next tick.
+     */
+    public Timeout schedule(long deadlineMillis, Runnable task) {
+        Timeout timeout = new Timeout(deadlineMillis, task);
+        incoming.add(timeout);
+        return timeout;
+    }
+
+    public void stop() {
+        stopped = true;
+        worker.interrupt();
+    }
+
+    private void run() {
+        while (!stopped) {
+            long nextTickAt = startMillis + (tick + 1) * tickMillis;
+            long sleep = nextTickAt - System.currentTimeMillis();
+            if (sleep > 0) {
+                try {
+                    TimeUnit.MILLISECONDS.sleep(sleep);
+                }
+                catch (InterruptedException e) {
+                    if (stopped) {
+                        return;
+                    }
+                }
+                continue;
+            }
+            long start = System.nanoTime();
+            transferIncoming();
+            expire(buckets.get((int) (tick % buckets.size())));
+            tick++;
+            tickNanos.recordSince(start);
+        }
+    }
+
+    private void transferIncoming() {
+        Timeout timeout;
+        while ((timeout = incoming.poll()) != null) {
+            if (timeout.cancelled) {
+                continue;
+            }
+            long due = Math.max(tick, (timeout.deadline - startMillis + tickMillis - 1) / tickMillis);
+            timeout.rounds = (due - tick) / buckets.size();
+            List<Timeout> bucket = buckets.get((int) (due % buckets.size()));
+            synchronized (bucket) {
+                bucket.add(timeout);
+            }
+        }
+    }
+
+    private void expire(List<Timeout> bucket) {
+        List<Timeout> due = new ArrayList<>();
+        synchronized (bucket) {
+            Iterator<Timeout> it = bucket.iterator();
+            while (it.hasNext()) {
+                Timeout timeout = it.next();
+                if (timeout.cancelled) {
+                    it.remove();
+                } else if (timeout.rounds <= 0) {
+                    it.remove();
+                    due.add(timeout);
+                } else {
+                    timeout.rounds--;
+                }
+            }
+        }
+        for (Timeout timeout : due) {
+            fired.increment();
+            try {
+                timeout.task.run();
+            }
+            catch (RuntimeException e) {
+                System.out.println("Timer task failed: " + e);
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package dataaccess;
+
+import model.AuthData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuthCachingDataAccessTests {
+
+    private interface Hook {
+        void run() throws DataAccessException;
+    }
+
+    private static class CountingDataAccess extends MemoryDataAccess {
+        int authReads = 0;
+        // Runs after a read, before its result is returned to the cache.
+        Hook afterRead = () -> { };
+
+        @Override
+        public AuthData getAuth(String authToken) throws DataAccessException {
+            authReads++;
+            AuthData auth = super.getAuth(authToken);
+            Hook hook = afterRead;
+            afterRead = () -> { };
+            hook.run();
+            return auth;
+        }
+    }
+
+    private CountingDataAccess backing;
+    private DataAccess dao;
+
+    @BeforeEach
+    void setup() {
+        backing = new CountingDataAccess();
+        dao = new AuthCachingDataAccess(backing, 100, Duration.ofMinutes(1), Duration.ofMinutes(1));
+    }
+
+    @Test
+    void testInvalidTokenCached() throws DataAccessException {
+        assertNull(dao.getAuth("bogus"));
+        assertNull(dao.getAuth("bogus"));
+
+        assertEquals(1, backing.authReads, "Repeated invalid token should be answered from the cache");
+    }
+
+    @Test
+    void testCreateAuthClearsNegativeEntry() throws DataAccessException {
+        assertNull(dao.getAuth("token"));
+        dao.createAuth(new AuthData("token", "bob"));
+
+        assertEquals("bob", dao.getAuth("token").username());
+    }
+
+    @Test
+    void testDeleteAuthInvalidatesImmediately() throws DataAccessException {
+        dao.createAuth(new AuthData("token", "bob"));
+        assertNotNull(dao.getAuth("token"));
+
+        dao.deleteAuth("token");
+
+        assertNull(dao.getAuth("token"));
+        assertNull(backing.getAuth("token"));
+    }
+
+    @Test
+    void testDeleteDuringLookupIsNotUndone() throws DataAccessException {
+        backing.createAuth(new AuthData("token", "bob"));
+        backing.afterRead = () -> dao.deleteAuth("token");
+
+        dao.getAuth("token");
+
+        assertNull(dao.getAuth("token"), "A token read before its logout must not be cached as valid");
+    }
+
+    @Test
+    void testBatchDeleteDuringLookupIsNotUndone() throws DataAccessException {
+        backing.createAuth(new AuthData("token", "bob"));
+        backing.afterRead = () -> dao.deleteAuths(List.of("token", "other"));
+
+        dao.getAuth("token");
+
+        assertNull(dao.getAuth("token"));
+    }
+
+    @Test
+    void testExpiredTokensRejectedAndPurged() throws DataAccessException {
+        DataAccess expiring = new MemoryDataAccess(Duration.ZERO);
+        expiring.createAuth(new AuthData("token", "bob"));
+
+        assertNull(expiring.getAuth("token"));
+        assertEquals(1, expiring.deleteExpiredAuths());
+    }
+}
@@ -0,0 +1,122 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import model.GameData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingDataAccessTests {
+
+    private static class CountingDataAccess extends MemoryDataAccess {
+        int gameReads = 0;
+
+        @Override
+        public GameData getGame(int gameID) throws DataAccessException {
+            gameReads++;
+            return super.getGame(gameID);
+        }
+
+        @Override
+        public Map<Integer, GameData> getGames(Collection<Integer> gameIDs) throws DataAccessException {
+            gameReads += gameIDs.size();
+            return super.getGames(gameIDs);
+        }
+    }
+
+    private CountingDataAccess backing;
+    private DataAccess dao;
+
+    @BeforeEach
+    void setup() {
+        backing = new CountingDataAccess();
+        dao = new CachingDataAccess(backing, 2, Duration.ofMinutes(5));
+    }
+
+    @Test
+    void testGetGameServedFromCache() throws DataAccessException {
+        backing.createGame(new GameData(1, null, null, "cached", new ChessGame()));
+
+        GameData first = dao.getGame(1);
+        GameData second = dao.getGame(1);
+
+        assertEquals(first.gameName(), second.gameName());
+        assertNotSame(first.game(), second.game(), "Each caller should get its own copy");
+        assertEquals(1, backing.gameReads, "Second read should not reach the backing store");
+    }
+
+    @Test
+    void testChangesToReturnedGameDoNotReachCache() throws Exception {
+        dao.createGame(new GameData(1, null, null, "game", new ChessGame()));
+        dao.getGame(1).game().makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+
+        assertEquals(new ChessGame().getBoard(), dao.getGame(1).game().getBoard());
+    }
+
+    @Test
+    void testUpdateGameWritesThrough() throws DataAccessException {
+        dao.createGame(new GameData(1, null, null, "game", new ChessGame()));
+        dao.updateGame(new GameData(1, "white", null, "game", new ChessGame()));
+
+        assertEquals("white", backing.getGame(1).whiteUsername());
+        assertEquals("white", dao.getGame(1).whiteUsername());
+    }
+
+    @Test
+    void testFailedUpdateInvalidatesEntry() throws DataAccessException {
+        backing.createGame(new GameData(1, null, null, "game", new ChessGame()));
+        dao.getGame(1);
+
+        assertThrows(DataAccessException.class,
+                () -> dao.updateGame(new GameData(2, null, null, "missing", new ChessGame())));
+        assertNull(dao.getGame(2));
+    }
+
+    @Test
+    void testLeastRecentlyUsedEvicted() throws DataAccessException {
+        for (int id = 1; id <= 3; id++) {
+            backing.createGame(new GameData(id, null, null, "game" + id, new ChessGame()));
+        }
+        dao.getGame(1);
+        dao.getGame(2);
+        dao.getGame(1);
+        dao.getGame(3);
+        backing.gameReads = 0;
+
+        dao.getGame(1);
+        assertEquals(0, backing.gameReads, "Recently used game should still be cached");
+        dao.getGame(2);
+        assertEquals(1, backing.gameReads, "Least recently used game should have been evicted");
+    }
+
+    @Test
+    void testClearDropsCachedGames() throws DataAccessException {
+        dao.createGame(new GameData(1, null, null, "game", new ChessGame()));
+        dao.clear();
+
+        assertNull(dao.getGame(1));
+    }
+
+    @Test
+    void testGetGamesOnlyLoadsMisses() throws DataAccessException {
+        backing.createGame(new GameData(1, null, null, "one", new ChessGame()));
+        backing.createGame(new GameData(2, null, null, "two", new ChessGame()));
+        dao.getGame(1);
+        backing.gameReads = 0;
+
+        Map<Integer, GameData> found = dao.getGames(List.of(1, 2, 3));
+
+        assertEquals(2, found.size());
+        assertEquals(2, backing.gameReads, "Only the uncached IDs should reach the backing store");
+        dao.getGame(2);
+        assertEquals(2, backing.gameReads, "Loaded games should have been cached");
+    }
+}
@@ -12,6 +12,7 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -100,6 +101,70 @@ class DataAccessTests {
         assertThrows(DataAccessException.class, () -> dao.createGame(duplicate));
     }
 
+    @Test
+    public void testCreateGameGeneratedIDs() throws DataAccessException {
+        int first = dao.createGame(new GameData(0, null, null, "First", new ChessGame()));
+        int second = dao.createGame(new GameData(0, null, null, "Second", new ChessGame()));
+
+        assertTrue(first > 0);
+        assertNotEquals(first, second);
+        assertEquals("Second", dao.getGame(second).gameName());
+    }
+
+    @Test
+    public void testCreateGamesPositive() throws DataAccessException {
+        List<Integer> ids = dao.createGames(List.of(
+                new GameData(0, null, null, "Batch 1", new ChessGame()),
+                new GameData(50, "a", null, "Batch 2", new ChessGame()),
+                new GameData(0, null, "b", "Batch 3", new ChessGame())));
+
+        assertEquals(3, ids.size());
+        assertEquals(50, ids.get(1));
+        assertEquals("Batch 1", dao.getGame(ids.get(0)).gameName());
+        assertEquals("b", dao.getGame(ids.get(2)).blackUsername());
+    }
+
+    @Test
+    public void testCreateGamesNegativeDuplicateRollsBack() throws DataAccessException {
+        dao.createGame(new GameData(7, null, null, "Existing", new ChessGame()));
+
+        assertThrows(DataAccessException.class, () -> dao.createGames(List.of(
+                new GameData(8, null, null, "New", new ChessGame()),
+                new GameData(7, null, null, "Duplicate", new ChessGame()))));
+        assertNull(dao.getGame(8));
+    }
+
+    @Test
+    public void testGetGamesPositive() throws DataAccessException {
+        List<Integer> ids = dao.createGames(List.of(
+                new GameData(0, null, null, "One", new ChessGame()),
+                new GameData(0, null, null, "Two", new ChessGame())));
+
+        var found = dao.getGames(List.of(ids.get(0), ids.get(1), 9999));
+
+        assertEquals(2, found.size());
+        assertEquals("Two", found.get(ids.get(1)).gameName());
+    }
+
+    @Test
+    public void testListGamesForPlayerPositive() throws DataAccessException {
+        dao.createGame(new GameData(1, "a", "b", "Both", new ChessGame()));
+        dao.createGame(new GameData(2, "b", "a", "Swapped", new ChessGame()));
+        dao.createGame(new GameData(3, "a", "a", "Self", new ChessGame()));
+        dao.createGame(new GameData(4, "b", "c", "Other", new ChessGame()));
+
+        List<GameData> games = dao.listGamesForPlayer("a");
+
+        assertEquals(List.of(1, 2, 3), games.stream().map(GameData::gameID).sorted().toList());
+    }
+
+    @Test
+    public void testListGamesForPlayerNegativeNone() throws DataAccessException {
+        dao.createGame(new GameData(1, "b", "c", "Other", new ChessGame()));
+
+        assertTrue(dao.listGamesForPlayer("a").isEmpty());
+    }
+
     @Test
     public void testGetGamePositive() throws DataAccessException {
         GameData game = new GameData(1,
@@ -152,6 +217,58 @@ class DataAccessTests {
         assertThrows(DataAccessException.class, () -> dao.updateGame(nonExistent));
     }
 
+    @Test
+    public void testUpdateGameNegativeStaleVersion() throws DataAccessException {
+        dao.createGame(new GameData(1, null, null, "Test Game", new ChessGame()));
+        dao.updateGame(new GameData(1, "testUser", null, "Test Game", new ChessGame(), 0));
+
+        GameData stale = new GameData(1, null, "user1", "Test Game", new ChessGame(), 0);
+        assertThrows(DataAccessException.class, () -> dao.updateGame(stale));
+        assertEquals("testUser", dao.getGame(1).whiteUsername());
+    }
+
+    @Test
+    public void testClaimSeatPositive() throws DataAccessException {
+        dao.createGame(new GameData(1, null, null, "Test Game", new ChessGame()));
+
+        assertTrue(dao.claimSeat(1, ChessGame.TeamColor.BLACK, "user1"));
+        assertEquals("user1", dao.getGame(1).blackUsername());
+    }
+
+    @Test
+    public void testArchiveFinishedGamesPositive() throws DataAccessException {
+        dao.createGame(new GameData(1, "a", "b", "Finished", new ChessGame()));
+        dao.createGame(new GameData(2, "a", "b", "Ongoing", new ChessGame()));
+        GameData finished = dao.getGame(1);
+        finished.game().setGameOver(true);
+        dao.updateGame(finished);
+
+        assertEquals(1, dao.archiveFinishedGames(Duration.ZERO, 10));
+        assertEquals(1, dao.listGames().size());
+        assertTrue(dao.getGame(1).game().isGameOver());
+        assertEquals("Finished", dao.getGame(1).gameName());
+    }
+
+    @Test
+    public void testArchiveFinishedGamesNegativeWithinGrace() throws DataAccessException {
+        dao.createGame(new GameData(1, "a", "b", "Finished", new ChessGame()));
+        GameData finished = dao.getGame(1);
+        finished.game().setGameOver(true);
+        dao.updateGame(finished);
+
+        assertEquals(0, dao.archiveFinishedGames(Duration.ofHours(1), 10));
+        assertEquals(1, dao.listGames().size());
+    }
+
+    @Test
+    public void testClaimSeatNegativeTaken() throws DataAccessException {
+        dao.createGame(new GameData(1, "a", null, "Test Game", new ChessGame()));
+
+        assertFalse(dao.claimSeat(1, ChessGame.TeamColor.WHITE, "b"));
+        assertFalse(dao.claimSeat(999, ChessGame.TeamColor.WHITE, "b"));
+        assertEquals("a", dao.getGame(1).whiteUsername());
+    }
+
     @Test
     public void testCreateAuthPositive() throws DataAccessException {
         AuthData auth = new AuthData("token123", "testUser");
@@ -193,6 +310,17 @@ class DataAccessTests {
         assertNull(retrieved);
     }
 
+    @Test
+    public void testDeleteAuthsPositive() throws DataAccessException {
+        dao.createAuth(new AuthData("t1", "testUser"));
+        dao.createAuth(new AuthData("t2", "testUser"));
+        dao.createAuth(new AuthData("t3", "user1"));
+
+        assertEquals(2, dao.deleteAuths(List.of("t1", "t2", "missing")));
+        assertNull(dao.getAuth("t1"));
+        assertNotNull(dao.getAuth("t3"));
+    }
+
     @Test
     public void testClearPositive() throws DataAccessException {
         dao.clear();
@@ -0,0 +1,177 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import model.AuthData;
+import model.GameData;
+import model.UserData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileDataAccessTests {
+
+    private Path dir;
+    private FileDataAccess dao;
+
+    @BeforeEach
+    void setup() throws IOException, DataAccessException {
+        dir = Files.createTempDirectory("chess-file-dao");
+        dao = open();
+    }
+
+    @AfterEach
+    void cleanup() throws IOException {
+        dao.close();
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(p);
+            }
+        }
+    }
+
+    private FileDataAccess open() throws DataAccessException {
+        return new FileDataAccess(dir, Duration.ofHours(1), false);
+    }
+
+    private FileDataAccess reopen() throws IOException, DataAccessException {
+        dao.close();
+        dao = open();
+        return dao;
+    }
+
+    @Test
+    void testStateSurvivesReopen() throws Exception {
+        dao.createUser(new UserData("alice", "hash", "a@x.com"));
+        dao.createAuth(new AuthData("token", "alice"));
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        int id = dao.createGame(new GameData(0, null, null, "persisted", game));
+        dao.claimSeat(id, ChessGame.TeamColor.WHITE, "alice");
+
+        reopen();
+
+        assertEquals("a@x.com", dao.getUser("alice").email());
+        assertEquals("alice", dao.getAuth("token").username());
+        GameData loaded = dao.getGame(id);
+        assertEquals("alice", loaded.whiteUsername());
+        assertEquals(1, loaded.version());
+        assertEquals(game.getBoard(), loaded.game().getBoard());
+        assertEquals(ChessGame.TeamColor.BLACK, loaded.game().getTeamTurn());
+        assertEquals(id + 1, dao.createGame(new GameData(0, null, null, "next", new ChessGame())));
+    }
+
+    @Test
+    void testDeletesAndClearAreReplayed() throws Exception {
+        dao.createUser(new UserData("bob", "hash", "b@x.com"));
+        dao.createAuth(new AuthData("gone", "bob"));
+        dao.deleteAuth("gone");
+        reopen();
+        assertNull(dao.getAuth("gone"));
+
+        dao.clear();
+        reopen();
+        assertNull(dao.getUser("bob"));
+    }
+
+    @Test
+    void testTornTailIsTruncated() throws Exception {
+        dao.createUser(new UserData("carol", "hash", "c@x.com"));
+        dao.close();
+        Files.writeString(dir.resolve(FileDataAccess.LOG_FILE), "{\"op\":\"user\",\"user\":{\"userna",
+                StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        dao = open();
+        dao.createUser(new UserData("dave", "hash", "d@x.com"));
+        reopen();
+
+        assertNotNull(dao.getUser("carol"));
+        assertNotNull(dao.getUser("dave"));
+    }
+
+    @Test
+    void testCreateGamesRejectsAssignedIdCollisionWhole() throws Exception {
+        int last = dao.createGame(new GameData(0, null, null, "first", new ChessGame()));
+
+        assertThrows(DataAccessException.class, () -> dao.createGames(List.of(
+                new GameData(0, null, null, "assigned", new ChessGame()),
+                new GameData(last + 1, null, null, "explicit", new ChessGame()))));
+        assertEquals(1, dao.listGames().size());
+    }
+
+    @Test
+    void testEmptyRecordsTreatedAsCorrupt() throws Exception {
+        dao.createUser(new UserData("erin", "hash", "e@x.com"));
+        dao.close();
+        Files.writeString(dir.resolve(FileDataAccess.LOG_FILE), "{}\n\n",
+                StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        dao = open();
+
+        assertNotNull(dao.getUser("erin"));
+        dao.createUser(new UserData("fay", "hash", "f@x.com"));
+        assertNotNull(reopen().getUser("fay"));
+    }
+
+    @Test
+    void testBatchAuthDeleteIsOneRecord() throws Exception {
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            dao.createAuth(new AuthData("token" + i, "gus"));
+            tokens.add("token" + i);
+        }
+        tokens.add("missing");
+        long before = logLines();
+
+        assertEquals(20, dao.deleteAuths(tokens));
+
+        assertEquals(before + 1, logLines());
+        assertNull(reopen().getAuth("token7"));
+    }
+
+    private long logLines() throws IOException {
+        try (Stream<String> log = Files.lines(dir.resolve(FileDataAccess.LOG_FILE))) {
+            return log.count();
+        }
+    }
+
+    @Test
+    void testReturnedGamesAreCopies() throws Exception {
+        ChessGame created = new ChessGame();
+        int id = dao.createGame(new GameData(0, null, null, "game", created));
+        created.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        dao.getGame(id).game().makeMove(new ChessMove(new ChessPosition(2, 4), new ChessPosition(4, 4), null));
+
+        assertEquals(new ChessGame().getBoard(), dao.getGame(id).game().getBoard());
+    }
+
+    @Test
+    void testCompactionKeepsLiveState() throws Exception {
+        int id = dao.createGame(new GameData(0, null, null, "busy", new ChessGame()));
+        for (int i = 0; i < 1500; i++) {
+            GameData current = dao.getGame(id);
+            dao.updateGame(new GameData(id, null, null, "busy", current.game(), current.version()));
+        }
+
+        long lines;
+        try (Stream<String> log = Files.lines(dir.resolve(FileDataAccess.LOG_FILE))) {
+            lines = log.count();
+        }
+        assertTrue(lines < 1000, "Log should have been compacted, has " + lines + " lines");
+        assertEquals(1500, reopen().getGame(id).version());
+    }
+}
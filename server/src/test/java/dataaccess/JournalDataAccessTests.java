@@ -0,0 +1,173 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import model.GameData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalDataAccessTests {
+
+    private Path dir;
+    private JournalDataAccess dao;
+
+    @BeforeEach
+    void setup() throws IOException, DataAccessException {
+        dir = Files.createTempDirectory("chess-journal");
+        dao = open(1_000_000);
+    }
+
+    @AfterEach
+    void cleanup() throws IOException {
+        dao.close();
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(p);
+            }
+        }
+    }
+
+    private JournalDataAccess open(int snapshotEvery) throws DataAccessException {
+        return new JournalDataAccess(new MemoryDataAccess(), dir, 4096, Duration.ofMillis(1), snapshotEvery);
+    }
+
+    private void reopen(int snapshotEvery) throws IOException, DataAccessException {
+        dao.close();
+        dao = open(snapshotEvery);
+    }
+
+    private static ChessMove move(int startRow, int startCol, int endRow, int endCol) {
+        return new ChessMove(new ChessPosition(startRow, startCol), new ChessPosition(endRow, endCol), null);
+    }
+
+    private void play(int gameID, ChessMove move) throws Exception {
+        GameData game = dao.getGame(gameID);
+        game.game().makeMove(move);
+        dao.updateGame(game);
+    }
+
+    @Test
+    void testGamesRebuiltFromJournal() throws Exception {
+        int id = dao.createGame(new GameData(0, null, null, "replayed", new ChessGame()));
+        assertTrue(dao.claimSeat(id, ChessGame.TeamColor.WHITE, "alice"));
+        assertTrue(dao.claimSeat(id, ChessGame.TeamColor.BLACK, "bob"));
+        play(id, move(2, 5, 4, 5));
+        play(id, move(7, 5, 5, 5));
+        GameData left = dao.getGame(id);
+        dao.updateGame(new GameData(id, "alice", null, left.gameName(), left.game(), left.version()));
+        GameData resigned = dao.getGame(id);
+        resigned.game().setGameOver(true);
+        dao.updateGame(resigned);
+        GameData expected = dao.getGame(id);
+
+        reopen(1_000_000);
+
+        GameData loaded = dao.getGame(id);
+        assertEquals("alice", loaded.whiteUsername());
+        assertNull(loaded.blackUsername());
+        assertTrue(loaded.game().isGameOver());
+        assertEquals(expected.version(), loaded.version());
+        assertEquals(expected.game().getBoard(), loaded.game().getBoard());
+        assertEquals(id + 1, dao.createGame(new GameData(0, null, null, "next", new ChessGame())));
+    }
+
+    @Test
+    void testCreateGamesRejectsAssignedIdCollisionWhole() throws Exception {
+        int last = dao.createGame(new GameData(0, null, null, "first", new ChessGame()));
+
+        assertThrows(DataAccessException.class, () -> dao.createGames(List.of(
+                new GameData(0, null, null, "assigned", new ChessGame()),
+                new GameData(last + 1, null, null, "explicit", new ChessGame()))));
+        assertEquals(1, dao.listGames().size());
+    }
+
+    @Test
+    void testStaleVersionRejected() throws Exception {
+        int id = dao.createGame(new GameData(0, null, null, "game", new ChessGame()));
+        GameData stale = dao.getGame(id);
+        play(id, move(2, 1, 3, 1));
+
+        assertThrows(DataAccessException.class, () -> dao.updateGame(stale));
+    }
+
+    @Test
+    void testSnapshotDropsOldSegmentsAndStillRecovers() throws Exception {
+        dao.close();
+        dao = open(50);
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            ids.add(dao.createGame(new GameData(0, null, null, "game" + i, new ChessGame())));
+        }
+        play(ids.get(0), move(2, 4, 4, 4));
+
+        long segments;
+        try (Stream<Path> files = Files.list(dir)) {
+            segments = files.filter(p -> p.toString().endsWith(".seg")).count();
+        }
+        assertTrue(segments < 5, "Snapshotted segments should be deleted, found " + segments);
+
+        reopen(50);
+        assertEquals(300, dao.listGames().size());
+        assertNotNull(dao.getGame(ids.get(0)).game().getBoard().getPiece(new ChessPosition(4, 4)));
+    }
+
+    @Test
+    void testCorruptTailDiscarded() throws Exception {
+        int id = dao.createGame(new GameData(0, null, null, "kept", new ChessGame()));
+        dao.createGame(new GameData(0, null, null, "torn", new ChessGame()));
+        dao.close();
+
+        Path segment;
+        try (Stream<Path> files = Files.list(dir)) {
+            segment = files.filter(p -> p.toString().endsWith(".seg")).findFirst().orElseThrow();
+        }
+        byte[] bytes = Files.readAllBytes(segment);
+        int secondFrame = 8 + ByteBuffer.wrap(bytes).getInt(0);
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.seek(secondFrame + 20);
+            file.write(bytes[secondFrame + 20] ^ 0xFF);
+        }
+
+        dao = open(1_000_000);
+        assertNotNull(dao.getGame(id));
+        assertEquals(1, dao.listGames().size());
+        assertEquals(id + 1, dao.createGame(new GameData(0, null, null, "rewritten", new ChessGame())));
+        reopen(1_000_000);
+        assertEquals("rewritten", dao.getGame(id + 1).gameName());
+    }
+
+    @Test
+    void testConcurrentWritersShareCommits() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            tasks.add(() -> dao.createGame(new GameData(0, null, null, "game", new ChessGame())));
+        }
+        for (Future<Integer> f : pool.invokeAll(tasks)) {
+            f.get();
+        }
+        pool.shutdown();
+
+        reopen(1_000_000);
+        assertEquals(400, dao.listGames().size());
+    }
+}
@@ -0,0 +1,118 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import model.GameData;
+import model.UserData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemoryDataAccessTests {
+
+    private MemoryDataAccess dao;
+
+    @BeforeEach
+    void setup() {
+        dao = new MemoryDataAccess();
+    }
+
+    @Test
+    void testConcurrentCreateGameAllocatesUniqueIDs() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            tasks.add(() -> dao.createGame(new GameData(0, null, null, "game", new ChessGame())));
+        }
+        Set<Integer> ids = new HashSet<>();
+        for (Future<Integer> f : pool.invokeAll(tasks)) {
+            ids.add(f.get());
+        }
+        pool.shutdown();
+
+        assertEquals(500, ids.size());
+        assertEquals(500, dao.listGames().size());
+    }
+
+    @Test
+    void testConcurrentVersionedUpdatesLoseNothing() throws Exception {
+        int id = dao.createGame(new GameData(0, null, null, "contended", new ChessGame()));
+        AtomicInteger applied = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            tasks.add(() -> {
+                for (int n = 0; n < 200; n++) {
+                    GameData current = dao.getGame(id);
+                    try {
+                        dao.updateGame(current);
+                        applied.incrementAndGet();
+                    }
+                    catch (DataAccessException conflict) {
+                        // another writer won this version; try again with a fresh read
+                    }
+                }
+                return null;
+            });
+        }
+        for (Future<Void> f : pool.invokeAll(tasks)) {
+            f.get();
+        }
+        pool.shutdown();
+
+        assertEquals(applied.get(), dao.getGame(id).version());
+    }
+
+    @Test
+    void testExplicitIDRejectedWhenTaken() throws DataAccessException {
+        dao.createGame(new GameData(7, null, null, "seven", new ChessGame()));
+
+        assertThrows(DataAccessException.class,
+                () -> dao.createGame(new GameData(7, null, null, "again", new ChessGame())));
+        assertEquals(8, dao.createGame(new GameData(0, null, null, "next", new ChessGame())));
+    }
+
+    @Test
+    void testFailedUpdateLeavesStoredGameUntouched() throws Exception {
+        int id = dao.createGame(new GameData(0, null, null, "game", new ChessGame()));
+        GameData fetched = dao.getGame(id);
+        fetched.game().makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        assertTrue(dao.claimSeat(id, ChessGame.TeamColor.WHITE, "alice"));
+
+        assertThrows(DataAccessException.class, () -> dao.updateGame(fetched));
+        assertEquals(ChessGame.TeamColor.WHITE, dao.getGame(id).game().getTeamTurn());
+        assertEquals(new ChessGame().getBoard(), dao.getGame(id).game().getBoard());
+    }
+
+    @Test
+    void testCreateGamesRejectsAssignedIdCollisionWhole() throws Exception {
+        int last = dao.createGame(new GameData(0, null, null, "first", new ChessGame()));
+
+        assertThrows(DataAccessException.class, () -> dao.createGames(List.of(
+                new GameData(0, null, null, "assigned", new ChessGame()),
+                new GameData(last + 1, null, null, "explicit", new ChessGame()))));
+        assertEquals(1, dao.listGames().size());
+    }
+
+    @Test
+    void testVerifyUserChecksStoredPassword() throws DataAccessException {
+        dao.createUser(new UserData("alice", "placeholder", "a@x.com"));
+        dao.storeUserPassword("alice", "secret");
+
+        assertTrue(dao.verifyUser("alice", "secret"));
+        assertFalse(dao.verifyUser("alice", "wrong"));
+        assertFalse(dao.verifyUser("nobody", "secret"));
+    }
+}
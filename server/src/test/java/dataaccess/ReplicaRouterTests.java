@@ -0,0 +1,114 @@
+package dataaccess;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLSyntaxErrorException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicaRouterTests {
+
+    private final Set<String> down = new HashSet<>();
+    private final Map<String, Long> lag = new HashMap<>();
+    private final Set<String> noPrivilege = new HashSet<>();
+    private final List<String> opened = new ArrayList<>();
+
+    private Connection connect(String url) throws SQLException {
+        if (down.contains(url)) {
+            throw new SQLException("Connection refused");
+        }
+        opened.add(url);
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "toString" -> url;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> null;
+                });
+    }
+
+    private Long lagOf(Connection conn) throws SQLException {
+        String url = conn.toString();
+        if (noPrivilege.contains(url)) {
+            throw new SQLSyntaxErrorException("Access denied; you need the REPLICATION CLIENT privilege",
+                    "42000", 1227);
+        }
+        return lag.getOrDefault(url, 0L);
+    }
+
+    private ReplicaRouter router(String... urls) {
+        return new ReplicaRouter(List.of(urls), 5, this::connect, this::lagOf);
+    }
+
+    @Test
+    void testNoReplicasMeansPrimary() {
+        ReplicaRouter router = router();
+
+        assertFalse(router.hasReplicas());
+        assertNull(router.replicaConnection());
+    }
+
+    @Test
+    void testUnprobedReplicasAreNotUsed() {
+        assertNull(router("r1").replicaConnection());
+    }
+
+    @Test
+    void testHealthyReplicasUsedRoundRobin() {
+        ReplicaRouter router = router("r1", "r2");
+        router.probeAll();
+        opened.clear();
+
+        for (int i = 0; i < 4; i++) {
+            assertNotNull(router.replicaConnection());
+        }
+
+        assertEquals(List.of("r1", "r2", "r1", "r2"), opened);
+    }
+
+    @Test
+    void testLaggingAndUnreachableReplicasSkipped() {
+        lag.put("r2", 30L);
+        down.add("r3");
+        ReplicaRouter router = router("r1", "r2", "r3");
+        router.probeAll();
+        opened.clear();
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals("r1", router.replicaConnection().toString());
+        }
+    }
+
+    @Test
+    void testFallsBackToPrimaryWhenNoneUsable() {
+        lag.put("r1", null);
+        noPrivilege.add("r2");
+        ReplicaRouter router = router("r1", "r2");
+        router.probeAll();
+
+        assertNull(router.replicaConnection());
+    }
+
+    @Test
+    void testReplicaThatFailsAtReadTimeIsDroppedUntilReprobed() {
+        ReplicaRouter router = router("r1");
+        router.probeAll();
+        down.add("r1");
+
+        assertNull(router.replicaConnection());
+
+        down.clear();
+        assertNull(router.replicaConnection(), "Should stay out until the next probe");
+        router.probeAll();
+        assertNotNull(router.replicaConnection());
+    }
+}
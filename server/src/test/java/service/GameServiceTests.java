@@ -1,5 +1,6 @@
 package service;
 
+import chess.ChessClock;
 import chess.ChessGame;
 import dataaccess.DataAccess;
 import dataaccess.DataAccessException;
@@ -13,7 +14,10 @@ import service.results.CreateGameResult;
 import service.results.JoinGameResult;
 import service.results.ListGamesResult;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -47,6 +51,18 @@ class GameServiceTests {
         assertNotNull(createdGame.game());
     }
 
+    @Test
+    void testCreateTimedGame() throws DataAccessException {
+        int gameID = gameService.createGame(new CreateGameRequest("blitz", 180, 2), "bob-token").gameID();
+
+        ChessClock clock = dao.getGame(gameID).game().getClock();
+        assertEquals(180_000, clock.getBaseMillis());
+        assertEquals(2_000, clock.getIncrementMillis());
+        assertFalse(clock.isRunning());
+        assertThrows(DataAccessException.class,
+                () -> gameService.createGame(new CreateGameRequest("bad", 0, 2), "bob-token"));
+    }
+
     @Test
     void testCreateGameUnauthorized() {
         CreateGameRequest request = new CreateGameRequest("No Auth Game");
@@ -87,6 +103,65 @@ class GameServiceTests {
                 "Expected 'already taken' exception");
     }
 
+    @Test
+    void testJoinGameConcurrentClaimsOneWinner() throws Exception {
+        CreateGameRequest req = new CreateGameRequest("Contested");
+        int gameID = gameService.createGame(req, "bob-token").gameID();
+
+        dao.createUser(new UserData("alice", "xyz", "alice@byu.edu"));
+        dao.createAuth(new model.AuthData("alice-token", "alice"));
+
+        List<String> tokens = List.of("bob-token", "alice-token");
+        AtomicInteger winners = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (String token : tokens) {
+            Thread t = new Thread(() -> {
+                try {
+                    start.await();
+                    gameService.joinGame(new JoinGameRequest("WHITE", gameID), token);
+                    winners.incrementAndGet();
+                }
+                catch (Exception ignored) {}
+            });
+            threads.add(t);
+            t.start();
+        }
+        start.countDown();
+        for (Thread t : threads) {
+            t.join();
+        }
+
+        assertEquals(1, winners.get(), "Exactly one join should win the seat");
+        assertNotNull(dao.getGame(gameID).whiteUsername());
+    }
+
+    @Test
+    void testTimedGameClockStartsWhenBothSeatsFilled() throws DataAccessException {
+        List<Integer> started = new ArrayList<>();
+        gameService = new GameService(dao, started::add);
+        dao.createAuth(new model.AuthData("amy-token", "amy"));
+        int timed = gameService.createGame(new CreateGameRequest("blitz", 180, 2), "bob-token").gameID();
+        int untimed = gameService.createGame(new CreateGameRequest("casual"), "bob-token").gameID();
+
+        gameService.joinGame(new JoinGameRequest("WHITE", timed), "bob-token");
+        assertFalse(dao.getGame(timed).game().getClock().isRunning());
+        gameService.joinGame(new JoinGameRequest("BLACK", timed), "amy-token");
+        gameService.joinGame(new JoinGameRequest("WHITE", untimed), "bob-token");
+        gameService.joinGame(new JoinGameRequest("BLACK", untimed), "amy-token");
+
+        assertTrue(dao.getGame(timed).game().getClock().isRunning());
+        assertEquals(List.of(timed), started);
+    }
+
+    @Test
+    void testJoinGameMissingGame() {
+        JoinGameRequest joinReq = new JoinGameRequest("WHITE", 42);
+        DataAccessException ex = assertThrows(DataAccessException.class,
+                () -> gameService.joinGame(joinReq, "bob-token"));
+        assertTrue(ex.getMessage().toLowerCase().contains("bad request"));
+    }
+
     @Test
     void testListGamesSuccess() throws DataAccessException {
         dao.createGame(new GameData(1, null, null, "GameOne", new ChessGame()));
@@ -104,4 +179,24 @@ class GameServiceTests {
                 () -> gameService.listGames("bad-token"),
                 "Expected unauthorized for invalid token");
     }
+
+    @Test
+    void testListPlayerGamesFollowsJoinAndLeave() throws DataAccessException {
+        dao.createGame(new GameData(1, null, null, "Joined", new ChessGame()));
+        dao.createGame(new GameData(2, null, "bob", "Created seated", new ChessGame()));
+        dao.createGame(new GameData(3, "alice", null, "Someone else's", new ChessGame()));
+        gameService.joinGame(new JoinGameRequest("WHITE", 1), "bob-token");
+
+        List<GameData> games = gameService.listPlayerGames("bob-token").games();
+        assertEquals(List.of(1, 2), games.stream().map(GameData::gameID).sorted().toList());
+
+        GameData left = dao.getGame(2);
+        dao.updateGame(new GameData(2, null, null, left.gameName(), left.game(), left.version()));
+        assertEquals(1, gameService.listPlayerGames("bob-token").games().size());
+    }
+
+    @Test
+    void testListPlayerGamesUnauthorized() {
+        assertThrows(DataAccessException.class, () -> gameService.listPlayerGames("bad-token"));
+    }
 }
@@ -51,6 +51,24 @@ class UserServiceTests {
                 "Expected an exception when registering a duplicate user");
     }
 
+    @Test
+    void testDuplicateRegisterDoesNotHash() throws DataAccessException {
+        dao.createUser(new UserData("bob", "secret", "bob@byu.edu"));
+        int[] hashes = {0};
+        UserService service = new UserService(dao, new PasswordHasher(4, 1, 1) {
+            @Override
+            public String hash(String clearTextPassword) throws DataAccessException {
+                hashes[0]++;
+                return super.hash(clearTextPassword);
+            }
+        });
+
+        DataAccessException e = assertThrows(DataAccessException.class,
+                () -> service.register(new RegisterRequest("bob", "other", "bob@byu.edu")));
+        assertEquals("User already exists", e.getMessage());
+        assertEquals(0, hashes[0]);
+    }
+
     @Test
     void testLoginSuccess() throws DataAccessException {
         userService.register(new RegisterRequest("charlie", "password", "c@byu.edu"));
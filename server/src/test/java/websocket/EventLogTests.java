@@ -0,0 +1,64 @@
+package websocket;
+
+import org.junit.jupiter.api.Test;
+import websocket.messages.ServerMessage;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventLogTests {
+
+    @Test
+    void testSequenceNumbersIncreasePerGame() {
+        EventLog log = new EventLog(8, 100);
+        long start = log.lastSeq(1);
+
+        EventLog.Event first = log.append(1, ServerMessage.notification("a"), null, null);
+        log.append(2, ServerMessage.notification("other game"), null, null);
+        EventLog.Event second = log.append(1, ServerMessage.notification("b"), null, null);
+
+        assertTrue(first.seq > start);
+        assertTrue(second.seq > first.seq);
+        assertEquals(second.seq, log.lastSeq(1));
+        assertTrue(second.frameFor(false).text().contains("\"seq\":" + second.seq));
+    }
+
+    @Test
+    void testSinceReturnsOnlyMissedEvents() {
+        EventLog log = new EventLog(8, 100);
+        long start = log.lastSeq(1);
+        for (int i = 0; i < 5; i++) {
+            log.append(1, ServerMessage.notification("n" + i), null, null);
+        }
+
+        List<EventLog.Event> missed = log.since(1, start + 3);
+
+        assertEquals(2, missed.size());
+        assertEquals(start + 4, missed.get(0).seq);
+        assertTrue(log.since(1, start + 5).isEmpty());
+    }
+
+    @Test
+    void testSinceNeedsFullReloadWhenEventsWereDropped() {
+        EventLog log = new EventLog(3, 100);
+        long start = log.lastSeq(1);
+        for (int i = 0; i < 5; i++) {
+            log.append(1, ServerMessage.notification("n" + i), null, null);
+        }
+
+        assertNull(log.since(1, start));
+        assertNotNull(log.since(1, start + 2));
+        assertNull(log.since(1, start + 99));
+    }
+
+    @Test
+    void testEvictedGameStartsAfterOldSequence() {
+        EventLog log = new EventLog(8, 1);
+        long old = log.append(1, ServerMessage.notification("a"), null, null).seq;
+        log.append(2, ServerMessage.notification("b"), null, null);
+
+        assertNull(log.since(1, old));
+        assertTrue(log.append(1, ServerMessage.notification("c"), null, null).seq > old);
+    }
+}
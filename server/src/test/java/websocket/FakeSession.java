@@ -0,0 +1,87 @@
+package websocket;
+
+import org.eclipse.jetty.websocket.api.RemoteEndpoint;
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A Jetty {@link Session} that records what is sent to it and holds write
+ * callbacks until a test completes them. Built as a dynamic proxy so only the
+ * handful of methods the websocket classes call need answering.
+ */
+final class FakeSession {
+    final List<String> sent = Collections.synchronizedList(new ArrayList<>());
+    final List<WriteCallback> pending = Collections.synchronizedList(new ArrayList<>());
+    final List<ByteBuffer> pings = Collections.synchronizedList(new ArrayList<>());
+    volatile boolean open = true;
+    volatile boolean disconnected;
+    volatile int closeCode;
+    volatile RuntimeException failWrites;
+    volatile boolean failPings;
+    // Blocks pings until the session is disconnected, like a peer whose TCP buffer is full.
+    volatile boolean stallPings;
+
+    final Session session = (Session) Proxy.newProxyInstance(Session.class.getClassLoader(),
+            new Class<?>[]{Session.class}, (proxy, method, args) -> switch (method.getName()) {
+                case "isOpen" -> open;
+                case "getRemote" -> remote();
+                case "close" -> {
+                    closeCode = (args != null && args.length > 0 && args[0] instanceof Integer code) ? code : 1000;
+                    open = false;
+                    yield null;
+                }
+                case "disconnect" -> {
+                    disconnected = true;
+                    open = false;
+                    yield null;
+                }
+                case "equals" -> proxy == args[0];
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "toString" -> "FakeSession@" + Integer.toHexString(System.identityHashCode(proxy));
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+
+    private RemoteEndpoint remote() {
+        return (RemoteEndpoint) Proxy.newProxyInstance(RemoteEndpoint.class.getClassLoader(),
+                new Class<?>[]{RemoteEndpoint.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "sendString" -> write((String) args[0], (WriteCallback) args[1]);
+                        case "sendBytes" -> write("bytes:" + ((ByteBuffer) args[0]).remaining(),
+                                (WriteCallback) args[1]);
+                        case "sendPing" -> {
+                            if (failPings) {
+                                throw new IOException("ping failed");
+                            }
+                            while (stallPings && !disconnected) {
+                                Thread.sleep(5);
+                            }
+                            pings.add((ByteBuffer) args[0]);
+                        }
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    }
+                    return null;
+                });
+    }
+
+    private void write(String frame, WriteCallback callback) {
+        if (failWrites != null) {
+            throw failWrites;
+        }
+        sent.add(frame);
+        pending.add(callback);
+    }
+
+    /**
+     * Completes the oldest write still in flight.
+     */
+    void completeWrite() {
+        pending.remove(0).writeSuccess();
+    }
+}
@@ -0,0 +1,81 @@
+package websocket;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameExecutorTests {
+
+    private GameExecutor executor;
+
+    @BeforeEach
+    void setup() {
+        executor = new GameExecutor(4);
+    }
+
+    @AfterEach
+    void teardown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void testTasksForOneGameRunInOrder() throws Exception {
+        List<Integer> seen = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(1000);
+        for (int i = 0; i < 1000; i++) {
+            int n = i;
+            executor.execute(7, () -> {
+                seen.add(n);
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, seen.get(i));
+        }
+    }
+
+    @Test
+    void testDifferentGamesRunInParallel() throws Exception {
+        // Each task waits for the other, which only finishes if they run on different threads.
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        Set<String> threads = Collections.synchronizedSet(new HashSet<>());
+        CountDownLatch done = new CountDownLatch(2);
+        for (int gameID : new int[] {1, 2}) {
+            executor.execute(gameID, () -> {
+                threads.add(Thread.currentThread().getName());
+                bothStarted.countDown();
+                try {
+                    bothStarted.await(5, TimeUnit.SECONDS);
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(0, bothStarted.getCount());
+        assertEquals(2, threads.size());
+    }
+
+    @Test
+    void testFailingTaskDoesNotStopStripe() throws Exception {
+        CountDownLatch ran = new CountDownLatch(1);
+        executor.execute(3, () -> {
+            throw new IllegalStateException("boom");
+        });
+        executor.execute(3, ran::countDown);
+        assertTrue(ran.await(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,127 @@
+package websocket;
+
+import chess.ChessGame;
+import dataaccess.DataAccessException;
+import dataaccess.ForwardingDataAccess;
+import dataaccess.MemoryDataAccess;
+import model.AuthData;
+import model.GameData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import serialization.Serializer;
+import websocket.commands.UserGameCommand;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameWebSocketHandlerTests {
+
+    /**
+     * Stands in for a store that has moved finished games to an archive:
+     * they can still be read, but updating one fails as if the row were gone.
+     */
+    private static final class ArchivingDataAccess extends ForwardingDataAccess {
+        final Set<Integer> archived = new HashSet<>();
+
+        ArchivingDataAccess() {
+            super(new MemoryDataAccess());
+        }
+
+        @Override
+        public void updateGame(GameData game) throws DataAccessException {
+            if (archived.contains(game.gameID())) {
+                throw new DataAccessException("Game ID does not exist");
+            }
+            super.updateGame(game);
+        }
+    }
+
+    private ArchivingDataAccess dao;
+    private GameExecutor executor;
+    private TimerWheel clocks;
+    private GameWebSocketHandler handler;
+
+    @BeforeEach
+    void setup() throws DataAccessException {
+        dao = new ArchivingDataAccess();
+        executor = new GameExecutor(2);
+        clocks = new TimerWheel(Duration.ofMillis(10), 64, "test-clocks");
+        handler = new GameWebSocketHandler(dao, executor, 100, Outbox.Policy.DISCONNECT, 16, 16, clocks,
+                new Heartbeat(Duration.ofSeconds(30), Duration.ofSeconds(60), Duration.ofSeconds(1)));
+        dao.createAuth(new AuthData("white-token", "alice"));
+        dao.createAuth(new AuthData("black-token", "bob"));
+    }
+
+    @AfterEach
+    void teardown() {
+        executor.shutdown();
+        clocks.stop();
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private void send(FakeSession client, UserGameCommand.CommandType type, String token, int gameID) {
+        handler.onMessage(client.session, Serializer.GSON.toJson(new UserGameCommand(type, token, gameID)));
+    }
+
+    private static boolean received(FakeSession client, String text) {
+        // Completing one write lets the outbox send the next.
+        while (!client.pending.isEmpty()) {
+            client.completeWrite();
+        }
+        synchronized (client.sent) {
+            return client.sent.stream().anyMatch(frame -> frame.contains(text));
+        }
+    }
+
+    @Test
+    void testSeatedPlayerCanLeaveArchivedGame() throws Exception {
+        ChessGame finished = new ChessGame();
+        finished.setGameOver(true);
+        int gameID = dao.createGame(new GameData(0, "alice", "bob", "done", finished, 0));
+
+        FakeSession white = new FakeSession();
+        FakeSession black = new FakeSession();
+        send(white, UserGameCommand.CommandType.CONNECT, "white-token", gameID);
+        send(black, UserGameCommand.CommandType.CONNECT, "black-token", gameID);
+        waitFor(() -> Lobby.clientsIn(gameID).size() == 2);
+        dao.archived.add(gameID);
+
+        send(white, UserGameCommand.CommandType.LEAVE, "white-token", gameID);
+        waitFor(() -> received(black, "A player left the game"));
+
+        assertTrue(received(black, "A player left the game"));
+        assertNull(Lobby.clientFor(white.session), "The leaving session should be out of the room");
+        assertFalse(received(white, "ERROR"));
+        assertEquals("alice", dao.getGame(gameID).whiteUsername(), "A finished game keeps its players");
+
+        Lobby.remove(black.session);
+    }
+
+    @Test
+    void testLeaveDropsSessionEvenIfSeatUpdateFails() throws Exception {
+        int gameID = dao.createGame(new GameData(0, "alice", "bob", "live", new ChessGame(), 0));
+
+        FakeSession white = new FakeSession();
+        send(white, UserGameCommand.CommandType.CONNECT, "white-token", gameID);
+        waitFor(() -> Lobby.clientFor(white.session) != null);
+        dao.archived.add(gameID);
+
+        send(white, UserGameCommand.CommandType.LEAVE, "white-token", gameID);
+        waitFor(() -> received(white, "ERROR"));
+
+        assertTrue(received(white, "ERROR"), "The failed update is still reported");
+        assertNull(Lobby.clientFor(white.session));
+    }
+}
@@ -0,0 +1,129 @@
+package websocket;
+
+import org.eclipse.jetty.websocket.api.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeartbeatTests {
+
+    private Heartbeat heartbeat;
+    private final List<Session> reaped = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setup() {
+        heartbeat = new Heartbeat(Duration.ofMillis(20), Duration.ofMillis(100), Duration.ofMillis(50));
+        heartbeat.start(reaped::add);
+    }
+
+    @AfterEach
+    void teardown() {
+        heartbeat.stop();
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    void testSilentSessionIsPingedThenReaped() throws Exception {
+        FakeSession silent = new FakeSession();
+        heartbeat.track(silent.session);
+
+        waitFor(() -> reaped.contains(silent.session));
+
+        assertTrue(reaped.contains(silent.session));
+        assertTrue(silent.disconnected, "A reaped session is torn down without a close handshake");
+        assertFalse(silent.pings.isEmpty());
+        assertEquals(Long.BYTES, silent.pings.get(0).remaining(), "Pings carry their send time");
+    }
+
+    @Test
+    void testPongsKeepSessionAlive() throws Exception {
+        FakeSession live = new FakeSession();
+        heartbeat.track(live.session);
+
+        long until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(400);
+        while (System.nanoTime() < until) {
+            ByteBuffer payload = ByteBuffer.allocate(Long.BYTES).putLong(0, System.nanoTime());
+            heartbeat.pong(live.session, payload);
+            Thread.sleep(10);
+        }
+
+        assertTrue(reaped.isEmpty());
+        assertFalse(live.disconnected);
+    }
+
+    @Test
+    void testFailedPingReapsAtOnce() throws Exception {
+        FakeSession broken = new FakeSession();
+        broken.failPings = true;
+        heartbeat.track(broken.session);
+
+        waitFor(() -> reaped.contains(broken.session));
+
+        assertTrue(broken.disconnected);
+    }
+
+    @Test
+    void testClosedAndUntrackedSessionsAreNotReaped() throws Exception {
+        FakeSession closed = new FakeSession();
+        FakeSession untracked = new FakeSession();
+        heartbeat.track(closed.session);
+        heartbeat.track(untracked.session);
+        closed.open = false;
+        heartbeat.untrack(untracked.session);
+
+        Thread.sleep(300);
+
+        assertTrue(reaped.isEmpty());
+        assertFalse(closed.disconnected);
+        assertTrue(untracked.pings.isEmpty());
+    }
+
+    @Test
+    void testStalledPingDoesNotHoldUpTheSweep() throws Exception {
+        heartbeat.stop();
+        // Long silence timeout, so only the stuck ping can get a session reaped.
+        heartbeat = new Heartbeat(Duration.ofMillis(20), Duration.ofSeconds(30), Duration.ofMillis(50));
+        heartbeat.start(reaped::add);
+        FakeSession stalled = new FakeSession();
+        FakeSession healthy = new FakeSession();
+        stalled.stallPings = true;
+        heartbeat.track(stalled.session);
+        heartbeat.track(healthy.session);
+
+        waitFor(() -> reaped.contains(stalled.session) && healthy.pings.size() >= 3);
+
+        assertTrue(stalled.disconnected, "A peer that can't take a ping is dropped");
+        assertTrue(healthy.pings.size() >= 3, "Other sessions keep being pinged");
+        assertFalse(reaped.contains(healthy.session));
+    }
+
+    @Test
+    void testSessionIsReapedOnce() throws Exception {
+        FakeSession silent = new FakeSession();
+        silent.failPings = true;
+        heartbeat.track(silent.session);
+
+        waitFor(() -> reaped.contains(silent.session));
+        // A late message must not put it back in the sweep.
+        silent.open = true;
+        heartbeat.seen(silent.session);
+        Thread.sleep(200);
+
+        assertEquals(1, reaped.stream().filter(s -> s == silent.session).count());
+    }
+}
@@ -0,0 +1,79 @@
+package websocket;
+
+import chess.ChessGame;
+import org.eclipse.jetty.websocket.api.Session;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CyclicBarrier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LobbyTests {
+
+    private static Lobby.Client client(Session session, int gameId) {
+        return new Lobby.Client(session, "user", gameId, ChessGame.TeamColor.WHITE, false);
+    }
+
+    @Test
+    void testAddMovesSessionBetweenRooms() {
+        Session session = new FakeSession().session;
+        int rooms = Lobby.roomCount();
+
+        Lobby.add(client(session, 1001));
+        Lobby.add(client(session, 1002));
+
+        assertTrue(Lobby.clientsIn(1001).isEmpty());
+        assertEquals(1002, Lobby.clientFor(session).gameId());
+        assertEquals(rooms + 1, Lobby.roomCount(), "The room left behind should have been dropped");
+        Lobby.remove(session);
+    }
+
+    @Test
+    void testRemoveLeavesOthersAndDropsEmptyRoom() {
+        Session first = new FakeSession().session;
+        Session second = new FakeSession().session;
+        int rooms = Lobby.roomCount();
+        Lobby.add(client(first, 2001));
+        Lobby.add(client(second, 2001));
+
+        Lobby.remove(first);
+        assertNull(Lobby.clientFor(first));
+        assertEquals(1, Lobby.clientsIn(2001).size());
+        assertSame(second, Lobby.clientsIn(2001).iterator().next().session());
+
+        Lobby.remove(second);
+        assertTrue(Lobby.clientsIn(2001).isEmpty());
+        assertEquals(rooms, Lobby.roomCount());
+    }
+
+    @Test
+    void testConcurrentAddAndRemoveNeverStrandsClient() throws Exception {
+        for (int i = 0; i < 5000; i++) {
+            Session session = new FakeSession().session;
+            Lobby.Client c = client(session, 3001);
+            CyclicBarrier start = new CyclicBarrier(2);
+            Thread adder = new Thread(() -> {
+                await(start);
+                Lobby.add(c);
+            });
+            adder.start();
+            await(start);
+            Lobby.remove(session);
+            adder.join();
+
+            boolean indexed = Lobby.clientFor(session) != null;
+            assertEquals(indexed, Lobby.clientsIn(3001).contains(c), "Index and room disagree");
+            Lobby.remove(session);
+        }
+        assertTrue(Lobby.clientsIn(3001).isEmpty());
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await();
+        }
+        catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package websocket;
+
+import chess.ChessGame;
+import org.eclipse.jetty.websocket.api.StatusCode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import websocket.messages.ServerMessage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutboxTests {
+
+    private FakeSession client;
+
+    @BeforeEach
+    void setup() {
+        client = new FakeSession();
+    }
+
+    private static OutboundFrame note(String text) {
+        return OutboundFrame.encode(ServerMessage.notification(text));
+    }
+
+    private static OutboundFrame board() {
+        return OutboundFrame.encode(ServerMessage.loadGame(new ChessGame()));
+    }
+
+    @Test
+    void testOneWriteInFlightAtATime() {
+        Outbox outbox = new Outbox(client.session, 10, Outbox.Policy.DISCONNECT);
+        outbox.offer(note("a"));
+        outbox.offer(note("b"));
+        outbox.offer(note("c"));
+
+        assertEquals(1, client.sent.size());
+        assertEquals(2, outbox.depth());
+
+        client.completeWrite();
+        client.completeWrite();
+        client.completeWrite();
+
+        assertEquals(3, client.sent.size());
+        assertTrue(client.sent.get(2).contains("\"c\""));
+        assertEquals(0, outbox.depth());
+        assertTrue(client.pending.isEmpty());
+    }
+
+    @Test
+    void testUnsentBoardReplacedByNewerOne() {
+        Outbox outbox = new Outbox(client.session, 10, Outbox.Policy.DISCONNECT);
+        outbox.offer(note("in flight"));
+        outbox.offer(board());
+        outbox.offer(note("between"));
+        outbox.offer(board());
+
+        assertEquals(2, outbox.depth());
+        client.completeWrite();
+        client.completeWrite();
+
+        assertEquals(3, client.sent.size());
+        assertTrue(client.sent.get(1).contains("between"));
+        assertTrue(client.sent.get(2).contains("LOAD_GAME"));
+    }
+
+    @Test
+    void testDropNewestKeepsSessionAtHighWaterMark() {
+        Outbox outbox = new Outbox(client.session, 2, Outbox.Policy.DROP_NEWEST);
+        outbox.offer(note("in flight"));
+        outbox.offer(note("1"));
+        outbox.offer(note("2"));
+        outbox.offer(note("dropped"));
+
+        assertEquals(2, outbox.depth());
+        assertTrue(client.open);
+        client.completeWrite();
+        client.completeWrite();
+        client.completeWrite();
+        assertFalse(String.join("", client.sent).contains("dropped"));
+    }
+
+    @Test
+    void testDisconnectClosesSessionAtHighWaterMark() {
+        Outbox outbox = new Outbox(client.session, 2, Outbox.Policy.DISCONNECT);
+        outbox.offer(note("in flight"));
+        outbox.offer(note("1"));
+        outbox.offer(note("2"));
+        outbox.offer(note("too many"));
+
+        assertFalse(client.open);
+        assertEquals(StatusCode.POLICY_VIOLATION, client.closeCode);
+        assertEquals(0, outbox.depth());
+
+        outbox.offer(note("after close"));
+        assertEquals(0, outbox.depth());
+    }
+
+    @Test
+    void testFailedWriteDoesNotStallTheOutbox() {
+        Outbox outbox = new Outbox(client.session, 10, Outbox.Policy.DISCONNECT);
+        outbox.offer(note("first"));
+        outbox.offer(note("second"));
+        client.failWrites = new IllegalStateException("connection gone");
+
+        client.completeWrite();
+
+        assertEquals(0, outbox.depth());
+        outbox.offer(note("third"));
+        assertEquals(0, outbox.depth(), "A failed outbox should stop accepting frames");
+    }
+
+    @Test
+    void testBinarySessionsGetBinaryFrames() {
+        Outbox outbox = new Outbox(client.session, 10, Outbox.Policy.DISCONNECT);
+        outbox.useBinary();
+        outbox.offer(board());
+
+        assertTrue(client.sent.get(0).startsWith("bytes:"));
+    }
+}
@@ -0,0 +1,64 @@
+package websocket;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimerWheelTests {
+
+    private TimerWheel wheel;
+
+    @BeforeEach
+    void setup() {
+        // A small wheel so deadlines wrap around it several times.
+        wheel = new TimerWheel(Duration.ofMillis(5), 8, "test-wheel");
+    }
+
+    @AfterEach
+    void teardown() {
+        wheel.stop();
+    }
+
+    @Test
+    void testFiresNoEarlierThanDeadline() throws Exception {
+        long deadline = System.currentTimeMillis() + 150;
+        CountDownLatch fired = new CountDownLatch(1);
+        long[] firedAt = new long[1];
+        wheel.schedule(deadline, () -> {
+            firedAt[0] = System.currentTimeMillis();
+            fired.countDown();
+        });
+
+        assertTrue(fired.await(2, TimeUnit.SECONDS));
+        assertTrue(firedAt[0] >= deadline - 5, "fired " + (deadline - firedAt[0]) + "ms early");
+    }
+
+    @Test
+    void testCancelledTimeoutDoesNotFire() throws Exception {
+        AtomicBoolean ran = new AtomicBoolean();
+        TimerWheel.Timeout timeout = wheel.schedule(System.currentTimeMillis() + 30, () -> ran.set(true));
+        timeout.cancel();
+        CountDownLatch later = new CountDownLatch(1);
+        wheel.schedule(System.currentTimeMillis() + 100, later::countDown);
+
+        assertTrue(later.await(2, TimeUnit.SECONDS));
+        assertFalse(ran.get());
+    }
+
+    @Test
+    void testManyTimeoutsAllFire() throws Exception {
+        CountDownLatch fired = new CountDownLatch(10_000);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 10_000; i++) {
+            wheel.schedule(now + (i % 200), fired::countDown);
+        }
+        assertTrue(fired.await(3, TimeUnit.SECONDS));
+    }
+}
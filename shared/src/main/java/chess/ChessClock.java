@@ -0,0 +1,151 @@
+package chess;
+
+import java.util.Objects;
+
+/**
+ * Fischer clock: each side starts with {@code baseMillis} and gains
+ * {@code incrementMillis} after every move it completes in time. Nothing runs
+ * until {@link #start} is called or the first move is made; from then on the
+ * side to move is charged for the wall-clock time since
+ * {@link #getTurnStartedAt()}.
+ * <p>
+ * Times are epoch milliseconds supplied by the caller, so the clock itself
+ * never reads the system time.
+ */
+public class ChessClock {
+
+    private final long baseMillis;
+    private final long incrementMillis;
+    private long whiteMillis;
+    private long blackMillis;
+    private long turnStartedAt;
+
+    public ChessClock(long baseMillis, long incrementMillis) {
+        this(baseMillis, incrementMillis, baseMillis, baseMillis, 0);
+    }
+
+    public ChessClock(long baseMillis, long incrementMillis, long whiteMillis, long blackMillis, long turnStartedAt) {
+        if (baseMillis <= 0 || incrementMillis < 0) {
+            throw new IllegalArgumentException("Invalid time control " + baseMillis + "+" + incrementMillis);
+        }
+        this.baseMillis = baseMillis;
+        this.incrementMillis = incrementMillis;
+        this.whiteMillis = whiteMillis;
+        this.blackMillis = blackMillis;
+        this.turnStartedAt = turnStartedAt;
+    }
+
+    public long getBaseMillis() {
+        return baseMillis;
+    }
+
+    public long getIncrementMillis() {
+        return incrementMillis;
+    }
+
+    /**
+     * Time banked for a side at the start of its current turn, not counting
+     * time spent on a turn in progress.
+     */
+    public long getStoredMillis(ChessGame.TeamColor team) {
+        return team == ChessGame.TeamColor.WHITE ? whiteMillis : blackMillis;
+    }
+
+    /**
+     * When the side to move started thinking, or 0 before the first move.
+     */
+    public long getTurnStartedAt() {
+        return turnStartedAt;
+    }
+
+    public boolean isRunning() {
+        return turnStartedAt != 0;
+    }
+
+    /**
+     * Time left for {@code team} at {@code now}, if {@code toMove} is the side
+     * whose clock is running. Never negative.
+     */
+    public long remainingMillis(ChessGame.TeamColor team, ChessGame.TeamColor toMove, long now) {
+        long stored = getStoredMillis(team);
+        if (isRunning() && team == toMove) {
+            stored -= now - turnStartedAt;
+        }
+        return Math.max(0, stored);
+    }
+
+    /**
+     * Epoch millis at which the side to move runs out of time, or
+     * {@link Long#MAX_VALUE} while the clock is not running.
+     */
+    public long flagDeadline(ChessGame.TeamColor toMove) {
+        return isRunning() ? turnStartedAt + getStoredMillis(toMove) : Long.MAX_VALUE;
+    }
+
+    /**
+     * Starts the side to move's clock at {@code now}, if it isn't running yet.
+     */
+    public void start(long now) {
+        if (!isRunning()) {
+            turnStartedAt = now;
+        }
+    }
+
+    /**
+     * Charges {@code mover} for the move just made and starts the opponent's
+     * clock. Returns false, without changing anything, if the mover had
+     * already run out of time.
+     */
+    public boolean punch(ChessGame.TeamColor mover, long now) {
+        long left = remainingMillis(mover, mover, now);
+        if (isRunning() && left <= 0) {
+            return false;
+        }
+        if (isRunning()) {
+            setStored(mover, left + incrementMillis);
+        }
+        turnStartedAt = now;
+        return true;
+    }
+
+    /**
+     * Stops the clock, for example once the game is over, keeping whatever
+     * time each side had left at {@code now}.
+     */
+    public void stop(ChessGame.TeamColor toMove, long now) {
+        if (isRunning()) {
+            setStored(toMove, remainingMillis(toMove, toMove, now));
+            turnStartedAt = 0;
+        }
+    }
+
+    public ChessClock copy() {
+        return new ChessClock(baseMillis, incrementMillis, whiteMillis, blackMillis, turnStartedAt);
+    }
+
+    private void setStored(ChessGame.TeamColor team, long millis) {
+        if (team == ChessGame.TeamColor.WHITE) {
+            whiteMillis = millis;
+        } else {
+            blackMillis = millis;
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ChessClock that)) {
+            return false;
+        }
+        return baseMillis == that.baseMillis && incrementMillis == that.incrementMillis
+                && whiteMillis == that.whiteMillis && blackMillis == that.blackMillis
+                && turnStartedAt == that.turnStartedAt;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(baseMillis, incrementMillis, whiteMillis, blackMillis, turnStartedAt);
+    }
+}
@@ -22,6 +22,12 @@ public class ChessGame {
     public boolean isGameOver() { return gameOver; }
     public void setGameOver(boolean over) { this.gameOver = over; }
 
+    // Null for untimed games.
+    private ChessClock clock;
+
+    public ChessClock getClock() { return clock; }
+    public void setClock(ChessClock clock) { this.clock = clock; }
+
     private ChessBoard board;
     private TeamColor currTurn = TeamColor.WHITE;
 
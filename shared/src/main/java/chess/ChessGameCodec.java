@@ -0,0 +1,167 @@
+package chess;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+/**
+ * Compact, versioned binary encoding of a {@link ChessGame}.
+ * <p>
+ * Layout (version 1, 43 bytes):
+ * <pre>
+ *   [0]      format version
+ *   [1]      flags: bit 0 black to move, bit 1 game over, bit 2 en passant square present
+ *   [2]      en passant square index, (row - 1) * 8 + (col - 1)
+ *   [3..34]  64 four-bit squares, two per byte, high nibble first; 0 is empty,
+ *            otherwise bit 3 is set for black and bits 0-2 hold PieceType ordinal + 1
+ *   [35..42] bitmask of squares whose piece has moved (castling rights)
+ * </pre>
+ * Version 2 (83 bytes) is written only for timed games. It appends the
+ * {@link ChessClock} as five longs: base, increment, white remaining, black
+ * remaining, turn started at.
+ */
+public final class ChessGameCodec {
+
+    public static final byte VERSION = 1;
+    public static final byte VERSION_WITH_CLOCK = 2;
+    public static final int ENCODED_LENGTH = 43;
+    public static final int ENCODED_LENGTH_WITH_CLOCK = ENCODED_LENGTH + 5 * Long.BYTES;
+
+    private static final int FLAG_BLACK_TO_MOVE = 1;
+    private static final int FLAG_GAME_OVER = 1 << 1;
+    private static final int FLAG_EN_PASSANT = 1 << 2;
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private ChessGameCodec() { }
+
+    public static byte[] encode(ChessGame game) {
+        ChessClock clock = game.getClock();
+        ByteBuffer out = ByteBuffer.allocate(clock == null ? ENCODED_LENGTH : ENCODED_LENGTH_WITH_CLOCK);
+        ChessBoard board = game.getBoard();
+        ChessPosition enPassant = board.getEnPassantSquare();
+
+        int flags = 0;
+        if (game.getTeamTurn() == ChessGame.TeamColor.BLACK) {
+            flags |= FLAG_BLACK_TO_MOVE;
+        }
+        if (game.isGameOver()) {
+            flags |= FLAG_GAME_OVER;
+        }
+        if (enPassant != null) {
+            flags |= FLAG_EN_PASSANT;
+        }
+        out.put(clock == null ? VERSION : VERSION_WITH_CLOCK);
+        out.put((byte) flags);
+        out.put((byte) (enPassant == null ? 0 : squareIndex(enPassant)));
+
+        long moved = 0;
+        for (int square = 0; square < 64; square += 2) {
+            ChessPiece high = board.getPiece(position(square));
+            ChessPiece low = board.getPiece(position(square + 1));
+            out.put((byte) ((nibble(high) << 4) | nibble(low)));
+            if (high != null && high.hasMoved()) {
+                moved |= 1L << square;
+            }
+            if (low != null && low.hasMoved()) {
+                moved |= 1L << (square + 1);
+            }
+        }
+        out.putLong(moved);
+        if (clock != null) {
+            out.putLong(clock.getBaseMillis());
+            out.putLong(clock.getIncrementMillis());
+            out.putLong(clock.getStoredMillis(ChessGame.TeamColor.WHITE));
+            out.putLong(clock.getStoredMillis(ChessGame.TeamColor.BLACK));
+            out.putLong(clock.getTurnStartedAt());
+        }
+        return out.array();
+    }
+
+    /**
+     * An independent deep copy, made by round-tripping through the encoding.
+     */
+    public static ChessGame copy(ChessGame game) {
+        return game == null ? null : decode(encode(game));
+    }
+
+    /**
+     * Length of an encoding that starts with {@code version}.
+     */
+    public static int encodedLength(byte version) {
+        return switch (version) {
+            case VERSION -> ENCODED_LENGTH;
+            case VERSION_WITH_CLOCK -> ENCODED_LENGTH_WITH_CLOCK;
+            default -> throw new IllegalArgumentException("Unsupported game encoding version: " + version);
+        };
+    }
+
+    /**
+     * CRC-32 of the encoded position. Two games with the same board, castling
+     * rights, en passant square, side to move and game-over flag hash the
+     * same, which lets a client check a locally applied move against the
+     * server's state. The version byte and clock are left out.
+     */
+    public static long positionHash(ChessGame game) {
+        CRC32 crc = new CRC32();
+        crc.update(encode(game), 1, ENCODED_LENGTH - 1);
+        return crc.getValue();
+    }
+
+    public static ChessGame decode(byte[] data) {
+        if (data == null || data.length == 0) {
+            throw new IllegalArgumentException("Encoded game is too short");
+        }
+        ByteBuffer in = ByteBuffer.wrap(data);
+        byte version = in.get();
+        if (data.length < encodedLength(version)) {
+            throw new IllegalArgumentException("Encoded game is too short");
+        }
+        int flags = in.get();
+        int enPassant = in.get();
+
+        byte[] squares = new byte[32];
+        in.get(squares);
+        long moved = in.getLong();
+
+        ChessBoard board = new ChessBoard();
+        for (int square = 0; square < 64; square++) {
+            int packed = squares[square / 2];
+            int value = (square % 2 == 0) ? (packed >> 4) & 0xF : packed & 0xF;
+            if (value == 0) {
+                continue;
+            }
+            ChessGame.TeamColor color = (value & 0x8) != 0 ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+            ChessPiece piece = new ChessPiece(color, TYPES[(value & 0x7) - 1]);
+            piece.setHasMoved((moved & (1L << square)) != 0);
+            board.addPiece(position(square), piece);
+        }
+        if ((flags & FLAG_EN_PASSANT) != 0) {
+            board.setEnPassantSquare(position(enPassant));
+        }
+
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        game.setTeamTurn((flags & FLAG_BLACK_TO_MOVE) != 0 ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE);
+        game.setGameOver((flags & FLAG_GAME_OVER) != 0);
+        if (version == VERSION_WITH_CLOCK) {
+            game.setClock(new ChessClock(in.getLong(), in.getLong(), in.getLong(), in.getLong(), in.getLong()));
+        }
+        return game;
+    }
+
+    private static int nibble(ChessPiece piece) {
+        if (piece == null) {
+            return 0;
+        }
+        int value = piece.getPieceType().ordinal() + 1;
+        return piece.getTeamColor() == ChessGame.TeamColor.BLACK ? value | 0x8 : value;
+    }
+
+    private static int squareIndex(ChessPosition pos) {
+        return (pos.getRow() - 1) * 8 + (pos.getColumn() - 1);
+    }
+
+    private static ChessPosition position(int square) {
+        return new ChessPosition(square / 8 + 1, square % 8 + 1);
+    }
+}
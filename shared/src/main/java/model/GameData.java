@@ -1,4 +1,24 @@
 package model;
 import chess.ChessGame;
+import chess.ChessGameCodec;
 
-public record GameData(int gameID, String whiteUsername, String blackUsername, String gameName, ChessGame game) {}
+/**
+ * @param version incremented by the data layer on every write; updates carrying
+ *                a stale version are rejected so concurrent writers cannot
+ *                silently overwrite each other.
+ */
+public record GameData(int gameID, String whiteUsername, String blackUsername, String gameName, ChessGame game,
+                       int version) {
+
+    public GameData(int gameID, String whiteUsername, String blackUsername, String gameName, ChessGame game) {
+        this(gameID, whiteUsername, blackUsername, gameName, game, 0);
+    }
+
+    /**
+     * This record with its own copy of the game, for in-memory stores that
+     * must not share their {@link ChessGame} objects with callers.
+     */
+    public GameData copy() {
+        return new GameData(gameID, whiteUsername, blackUsername, gameName, ChessGameCodec.copy(game), version);
+    }
+}
@@ -0,0 +1,178 @@
+package serialization;
+
+import chess.ChessClock;
+import chess.ChessGame;
+import chess.ChessGameCodec;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import websocket.commands.UserGameCommand;
+import websocket.messages.ServerMessage;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Compact binary websocket frames, the optional alternative to JSON text.
+ * A client switches to it by sending its first command as a binary frame;
+ * the server then answers that session in binary too.
+ * <p>
+ * Commands: {@code [type][int gameID][UTF authToken][flags]}, then a packed
+ * move for MAKE_MOVE or a long lastSeq for RESUME. Flag bit 0 asks for
+ * delta updates.
+ * <p>
+ * Server messages: {@code [type][long seq]}, then
+ * <ul>
+ *   <li>LOAD_GAME: the {@link ChessGameCodec} encoding (43 bytes, 83 with a clock)</li>
+ *   <li>MOVE: packed move, flags, int position hash, and the clock if flagged</li>
+ *   <li>NOTIFICATION and ERROR: the text as UTF</li>
+ * </ul>
+ * A packed move is a short: from square in bits 0-5, to square in bits 6-11,
+ * promotion piece ordinal + 1 in bits 12-14.
+ */
+public final class BinaryProtocol {
+
+    private static final int DELTA_UPDATES = 1;
+
+    private static final int BLACK_TO_MOVE = 1;
+    private static final int CHECK = 1 << 1;
+    private static final int CHECKMATE = 1 << 2;
+    private static final int STALEMATE = 1 << 3;
+    private static final int HAS_CLOCK = 1 << 4;
+
+    private static final UserGameCommand.CommandType[] COMMAND_TYPES = UserGameCommand.CommandType.values();
+    private static final ServerMessage.ServerMessageType[] MESSAGE_TYPES = ServerMessage.ServerMessageType.values();
+    private static final ChessPiece.PieceType[] PIECE_TYPES = ChessPiece.PieceType.values();
+
+    private BinaryProtocol() { }
+
+    public static byte[] encodeCommand(UserGameCommand cmd) {
+        return write(out -> {
+            out.writeByte(cmd.getCommandType().ordinal());
+            out.writeInt(cmd.getGameID());
+            out.writeUTF(cmd.getAuthToken() == null ? "" : cmd.getAuthToken());
+            out.writeByte(cmd.deltaUpdates ? DELTA_UPDATES : 0);
+            if (cmd.getCommandType() == UserGameCommand.CommandType.MAKE_MOVE) {
+                out.writeShort(packMove(cmd.getMove()));
+            } else if (cmd.getCommandType() == UserGameCommand.CommandType.RESUME) {
+                out.writeLong(cmd.lastSeq);
+            }
+        });
+    }
+
+    public static UserGameCommand decodeCommand(byte[] data, int offset, int length) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data, offset, length))) {
+            UserGameCommand.CommandType type = COMMAND_TYPES[in.readUnsignedByte()];
+            int gameID = in.readInt();
+            String authToken = in.readUTF();
+            int flags = in.readUnsignedByte();
+            UserGameCommand cmd = new UserGameCommand(type, authToken, gameID);
+            cmd.deltaUpdates = (flags & DELTA_UPDATES) != 0;
+            if (type == UserGameCommand.CommandType.MAKE_MOVE) {
+                cmd.move = unpackMove(in.readShort());
+            } else if (type == UserGameCommand.CommandType.RESUME) {
+                cmd.lastSeq = in.readLong();
+            }
+            return cmd;
+        }
+        catch (IOException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Malformed binary command", e);
+        }
+    }
+
+    public static byte[] encodeMessage(ServerMessage m) {
+        return write(out -> {
+            out.writeByte(m.getServerMessageType().ordinal());
+            out.writeLong(m.seq);
+            switch (m.getServerMessageType()) {
+                case LOAD_GAME -> out.write(ChessGameCodec.encode(m.game));
+                case MOVE -> {
+                    out.writeShort(packMove(m.move));
+                    int flags = (m.teamTurn == ChessGame.TeamColor.BLACK ? BLACK_TO_MOVE : 0)
+                            | (m.check ? CHECK : 0) | (m.checkmate ? CHECKMATE : 0)
+                            | (m.stalemate ? STALEMATE : 0) | (m.clock != null ? HAS_CLOCK : 0);
+                    out.writeByte(flags);
+                    out.writeInt((int) m.positionHash);
+                    if (m.clock != null) {
+                        out.writeLong(m.clock.getBaseMillis());
+                        out.writeLong(m.clock.getIncrementMillis());
+                        out.writeLong(m.clock.getStoredMillis(ChessGame.TeamColor.WHITE));
+                        out.writeLong(m.clock.getStoredMillis(ChessGame.TeamColor.BLACK));
+                        out.writeLong(m.clock.getTurnStartedAt());
+                    }
+                }
+                case NOTIFICATION -> out.writeUTF(m.message);
+                case ERROR -> out.writeUTF(m.errorMessage);
+            }
+        });
+    }
+
+    public static ServerMessage decodeMessage(byte[] data, int offset, int length) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data, offset, length))) {
+            ServerMessage m = new ServerMessage(MESSAGE_TYPES[in.readUnsignedByte()]);
+            m.seq = in.readLong();
+            switch (m.getServerMessageType()) {
+                case LOAD_GAME -> m.game = ChessGameCodec.decode(in.readAllBytes());
+                case MOVE -> {
+                    m.move = unpackMove(in.readShort());
+                    int flags = in.readUnsignedByte();
+                    m.teamTurn = (flags & BLACK_TO_MOVE) != 0 ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+                    m.check = (flags & CHECK) != 0;
+                    m.checkmate = (flags & CHECKMATE) != 0;
+                    m.stalemate = (flags & STALEMATE) != 0;
+                    m.positionHash = in.readInt() & 0xFFFFFFFFL;
+                    if ((flags & HAS_CLOCK) != 0) {
+                        m.clock = new ChessClock(in.readLong(), in.readLong(), in.readLong(), in.readLong(),
+                                in.readLong());
+                    }
+                }
+                case NOTIFICATION -> m.message = in.readUTF();
+                case ERROR -> m.errorMessage = in.readUTF();
+            }
+            return m;
+        }
+        catch (IOException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Malformed binary message", e);
+        }
+    }
+
+    static int packMove(ChessMove move) {
+        ChessPiece.PieceType promotion = move.getPromotionPiece();
+        return square(move.getStartPosition())
+                | square(move.getEndPosition()) << 6
+                | (promotion == null ? 0 : promotion.ordinal() + 1) << 12;
+    }
+
+    static ChessMove unpackMove(int packed) {
+        int promotion = (packed >> 12) & 0x7;
+        return new ChessMove(position(packed & 0x3F), position((packed >> 6) & 0x3F),
+                promotion == 0 ? null : PIECE_TYPES[promotion - 1]);
+    }
+
+    private static int square(ChessPosition pos) {
+        return (pos.getRow() - 1) * 8 + (pos.getColumn() - 1);
+    }
+
+    private static ChessPosition position(int square) {
+        return new ChessPosition(square / 8 + 1, square % 8 + 1);
+    }
+
+    private interface Writer {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private static byte[] write(Writer writer) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writer.write(out);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
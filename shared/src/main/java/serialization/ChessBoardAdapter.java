@@ -0,0 +1,134 @@
+package serialization;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Writes a board as
+ * {@code {"fen":"rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR","moved":"0","enPassantSquare":null}}.
+ * The FEN field is the piece placement, rank 8 first. {@code moved} is a hex
+ * bitmask of squares, {@code (row - 1) * 8 + (col - 1)}, whose piece has
+ * moved. It preserves castling rights.
+ */
+class ChessBoardAdapter extends TypeAdapter<ChessBoard> {
+    private final ChessPositionAdapter positions = new ChessPositionAdapter();
+
+    @Override
+    public void write(JsonWriter out, ChessBoard board) throws IOException {
+        StringBuilder fen = new StringBuilder(72);
+        long moved = 0;
+        for (int row = 8; row >= 1; row--) {
+            int empty = 0;
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = board.getPiece(new ChessPosition(row, col));
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append(empty);
+                    empty = 0;
+                }
+                fen.append(toChar(piece));
+                if (piece.hasMoved()) {
+                    moved |= 1L << ((row - 1) * 8 + (col - 1));
+                }
+            }
+            if (empty > 0) {
+                fen.append(empty);
+            }
+            if (row > 1) {
+                fen.append('/');
+            }
+        }
+
+        out.beginObject();
+        out.name("fen").value(fen.toString());
+        out.name("moved").value(Long.toHexString(moved));
+        if (board.getEnPassantSquare() != null) {
+            out.name("enPassantSquare");
+            positions.write(out, board.getEnPassantSquare());
+        }
+        out.endObject();
+    }
+
+    @Override
+    public ChessBoard read(JsonReader in) throws IOException {
+        String fen = null;
+        long moved = 0;
+        ChessPosition enPassant = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "fen" -> fen = in.nextString();
+                case "moved" -> moved = Long.parseUnsignedLong(in.nextString(), 16);
+                case "enPassantSquare" -> enPassant = positions.read(in);
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+
+        if (fen == null) {
+            throw new IOException("Board is missing its fen field");
+        }
+        ChessBoard board = new ChessBoard();
+        int row = 8;
+        int col = 1;
+        for (char c : fen.toCharArray()) {
+            if (c == '/') {
+                row--;
+                col = 1;
+            }
+            else if (Character.isDigit(c)) {
+                col += c - '0';
+            }
+            else {
+                ChessPiece piece = fromChar(c);
+                piece.setHasMoved((moved & (1L << ((row - 1) * 8 + (col - 1)))) != 0);
+                board.addPiece(new ChessPosition(row, col), piece);
+                col++;
+            }
+        }
+        board.setEnPassantSquare(enPassant);
+        return board;
+    }
+
+    private static char toChar(ChessPiece piece) {
+        char c = switch (piece.getPieceType()) {
+            case KING -> 'K';
+            case QUEEN -> 'Q';
+            case ROOK -> 'R';
+            case BISHOP -> 'B';
+            case KNIGHT -> 'N';
+            case PAWN -> 'P';
+        };
+        return piece.getTeamColor() == ChessGame.TeamColor.WHITE ? c : Character.toLowerCase(c);
+    }
+
+    private static ChessPiece fromChar(char c) throws IOException {
+        ChessGame.TeamColor color = Character.isUpperCase(c) ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+        ChessPiece.PieceType type = switch (Character.toUpperCase(c)) {
+            case 'K' -> ChessPiece.PieceType.KING;
+            case 'Q' -> ChessPiece.PieceType.QUEEN;
+            case 'R' -> ChessPiece.PieceType.ROOK;
+            case 'B' -> ChessPiece.PieceType.BISHOP;
+            case 'N' -> ChessPiece.PieceType.KNIGHT;
+            case 'P' -> ChessPiece.PieceType.PAWN;
+            default -> throw new IOException("Unknown piece in fen: " + c);
+        };
+        return new ChessPiece(color, type);
+    }
+}
@@ -0,0 +1,45 @@
+package serialization;
+
+import chess.ChessClock;
+import chess.ChessGame;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+class ChessClockAdapter extends TypeAdapter<ChessClock> {
+
+    @Override
+    public void write(JsonWriter out, ChessClock clock) throws IOException {
+        out.beginObject();
+        out.name("baseMillis").value(clock.getBaseMillis());
+        out.name("incrementMillis").value(clock.getIncrementMillis());
+        out.name("whiteMillis").value(clock.getStoredMillis(ChessGame.TeamColor.WHITE));
+        out.name("blackMillis").value(clock.getStoredMillis(ChessGame.TeamColor.BLACK));
+        out.name("turnStartedAt").value(clock.getTurnStartedAt());
+        out.endObject();
+    }
+
+    @Override
+    public ChessClock read(JsonReader in) throws IOException {
+        long base = 0;
+        long increment = 0;
+        long white = 0;
+        long black = 0;
+        long turnStartedAt = 0;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "baseMillis" -> base = in.nextLong();
+                case "incrementMillis" -> increment = in.nextLong();
+                case "whiteMillis" -> white = in.nextLong();
+                case "blackMillis" -> black = in.nextLong();
+                case "turnStartedAt" -> turnStartedAt = in.nextLong();
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return new ChessClock(base, increment, white, black, turnStartedAt);
+    }
+}
@@ -0,0 +1,44 @@
+package serialization;
+
+import chess.ChessGame;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+class ChessGameAdapter extends TypeAdapter<ChessGame> {
+    private final ChessBoardAdapter boards = new ChessBoardAdapter();
+    private final ChessClockAdapter clocks = new ChessClockAdapter();
+
+    @Override
+    public void write(JsonWriter out, ChessGame game) throws IOException {
+        out.beginObject();
+        out.name("board");
+        boards.write(out, game.getBoard());
+        out.name("teamTurn").value(game.getTeamTurn().name());
+        out.name("gameOver").value(game.isGameOver());
+        if (game.getClock() != null) {
+            out.name("clock");
+            clocks.write(out, game.getClock());
+        }
+        out.endObject();
+    }
+
+    @Override
+    public ChessGame read(JsonReader in) throws IOException {
+        ChessGame game = new ChessGame();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "board" -> game.setBoard(boards.read(in));
+                case "teamTurn" -> game.setTeamTurn(ChessGame.TeamColor.valueOf(in.nextString()));
+                case "gameOver" -> game.setGameOver(in.nextBoolean());
+                case "clock" -> game.setClock(clocks.read(in));
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return game;
+    }
+}
@@ -0,0 +1,45 @@
+package serialization;
+
+import chess.ChessGame;
+import chess.ChessPiece;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Standalone pieces keep the reflective field names. Pieces on a board are
+ * written by {@link ChessBoardAdapter} instead.
+ */
+class ChessPieceAdapter extends TypeAdapter<ChessPiece> {
+
+    @Override
+    public void write(JsonWriter out, ChessPiece piece) throws IOException {
+        out.beginObject();
+        out.name("teamColor").value(piece.getTeamColor().name());
+        out.name("type").value(piece.getPieceType().name());
+        out.name("hasMoved").value(piece.hasMoved());
+        out.endObject();
+    }
+
+    @Override
+    public ChessPiece read(JsonReader in) throws IOException {
+        ChessGame.TeamColor color = null;
+        ChessPiece.PieceType type = null;
+        boolean hasMoved = false;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "teamColor" -> color = ChessGame.TeamColor.valueOf(in.nextString());
+                case "type" -> type = ChessPiece.PieceType.valueOf(in.nextString());
+                case "hasMoved" -> hasMoved = in.nextBoolean();
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        ChessPiece piece = new ChessPiece(color, type);
+        piece.setHasMoved(hasMoved);
+        return piece;
+    }
+}
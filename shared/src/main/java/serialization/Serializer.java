@@ -0,0 +1,31 @@
+package serialization;
+
+import chess.*;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import websocket.commands.UserGameCommand;
+import websocket.messages.ServerMessage;
+
+/**
+ * The one {@link Gson} instance shared by the client and server. Chess and
+ * websocket types are written by hand-written streaming adapters rather than
+ * reflection, and boards go over the wire as a compact FEN string.
+ */
+public final class Serializer {
+
+    public static final Gson GSON = registerAdapters(new GsonBuilder()).create();
+
+    private Serializer() { }
+
+    public static GsonBuilder registerAdapters(GsonBuilder builder) {
+        return builder
+                .registerTypeAdapter(ChessPosition.class, new ChessPositionAdapter().nullSafe())
+                .registerTypeAdapter(ChessMove.class, new ChessMoveAdapter().nullSafe())
+                .registerTypeAdapter(ChessPiece.class, new ChessPieceAdapter().nullSafe())
+                .registerTypeAdapter(ChessBoard.class, new ChessBoardAdapter().nullSafe())
+                .registerTypeAdapter(ChessClock.class, new ChessClockAdapter().nullSafe())
+                .registerTypeAdapter(ChessGame.class, new ChessGameAdapter().nullSafe())
+                .registerTypeHierarchyAdapter(UserGameCommand.class, new UserGameCommandAdapter().nullSafe())
+                .registerTypeAdapter(ServerMessage.class, new ServerMessageAdapter().nullSafe());
+    }
+}
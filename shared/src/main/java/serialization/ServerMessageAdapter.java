@@ -0,0 +1,95 @@
+package serialization;
+
+import chess.ChessGame;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import websocket.messages.ServerMessage;
+
+import java.io.IOException;
+
+class ServerMessageAdapter extends TypeAdapter<ServerMessage> {
+    private final ChessGameAdapter games = new ChessGameAdapter();
+    private final ChessMoveAdapter moves = new ChessMoveAdapter();
+    private final ChessClockAdapter clocks = new ChessClockAdapter();
+
+    @Override
+    public void write(JsonWriter out, ServerMessage m) throws IOException {
+        out.beginObject();
+        out.name("serverMessageType").value(m.getServerMessageType().name());
+        if (m.game != null) {
+            out.name("game");
+            games.write(out, m.game);
+        }
+        if (m.message != null) {
+            out.name("message").value(m.message);
+        }
+        if (m.errorMessage != null) {
+            out.name("errorMessage").value(m.errorMessage);
+        }
+        if (m.seq != 0) {
+            out.name("seq").value(m.seq);
+        }
+        if (m.getServerMessageType() == ServerMessage.ServerMessageType.MOVE) {
+            out.name("move");
+            moves.write(out, m.move);
+            out.name("teamTurn").value(m.teamTurn.name());
+            out.name("check").value(m.check);
+            out.name("checkmate").value(m.checkmate);
+            out.name("stalemate").value(m.stalemate);
+            out.name("positionHash").value(m.positionHash);
+            if (m.clock != null) {
+                out.name("clock");
+                clocks.write(out, m.clock);
+            }
+        }
+        out.endObject();
+    }
+
+    @Override
+    public ServerMessage read(JsonReader in) throws IOException {
+        ServerMessage m = new ServerMessage(null);
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "serverMessageType" -> m = copyWithType(m, ServerMessage.ServerMessageType.valueOf(in.nextString()));
+                case "game" -> m.game = games.read(in);
+                case "message" -> m.message = in.nextString();
+                case "errorMessage" -> m.errorMessage = in.nextString();
+                case "move" -> m.move = moves.read(in);
+                case "teamTurn" -> m.teamTurn = ChessGame.TeamColor.valueOf(in.nextString());
+                case "check" -> m.check = in.nextBoolean();
+                case "checkmate" -> m.checkmate = in.nextBoolean();
+                case "stalemate" -> m.stalemate = in.nextBoolean();
+                case "positionHash" -> m.positionHash = in.nextLong();
+                case "seq" -> m.seq = in.nextLong();
+                case "clock" -> m.clock = clocks.read(in);
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return m;
+    }
+
+    private static ServerMessage copyWithType(ServerMessage m, ServerMessage.ServerMessageType type) {
+        ServerMessage typed = new ServerMessage(type);
+        typed.game = m.game;
+        typed.message = m.message;
+        typed.errorMessage = m.errorMessage;
+        typed.move = m.move;
+        typed.teamTurn = m.teamTurn;
+        typed.check = m.check;
+        typed.checkmate = m.checkmate;
+        typed.stalemate = m.stalemate;
+        typed.positionHash = m.positionHash;
+        typed.seq = m.seq;
+        typed.clock = m.clock;
+        return typed;
+    }
+}
@@ -0,0 +1,70 @@
+package serialization;
+
+import chess.ChessMove;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import websocket.commands.UserGameCommand;
+
+import java.io.IOException;
+
+/**
+ * Registered as a hierarchy adapter so client-side subclasses such as a
+ * make-move command serialize the same way as the base class.
+ */
+class UserGameCommandAdapter extends TypeAdapter<UserGameCommand> {
+    private final ChessMoveAdapter moves = new ChessMoveAdapter();
+
+    @Override
+    public void write(JsonWriter out, UserGameCommand cmd) throws IOException {
+        out.beginObject();
+        out.name("commandType").value(cmd.getCommandType().name());
+        out.name("authToken").value(cmd.getAuthToken());
+        out.name("gameID").value(cmd.getGameID());
+        if (cmd.getMove() != null) {
+            out.name("move");
+            moves.write(out, cmd.getMove());
+        }
+        if (cmd.deltaUpdates) {
+            out.name("deltaUpdates").value(true);
+        }
+        if (cmd.lastSeq != 0) {
+            out.name("lastSeq").value(cmd.lastSeq);
+        }
+        out.endObject();
+    }
+
+    @Override
+    public UserGameCommand read(JsonReader in) throws IOException {
+        UserGameCommand.CommandType type = null;
+        String authToken = null;
+        Integer gameID = null;
+        ChessMove move = null;
+        boolean deltaUpdates = false;
+        long lastSeq = 0;
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "commandType" -> type = UserGameCommand.CommandType.valueOf(in.nextString());
+                case "authToken" -> authToken = in.nextString();
+                case "gameID" -> gameID = in.nextInt();
+                case "move" -> move = moves.read(in);
+                case "deltaUpdates" -> deltaUpdates = in.nextBoolean();
+                case "lastSeq" -> lastSeq = in.nextLong();
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        UserGameCommand cmd = new UserGameCommand(type, authToken, gameID);
+        cmd.move = move;
+        cmd.deltaUpdates = deltaUpdates;
+        cmd.lastSeq = lastSeq;
+        return cmd;
+    }
+}
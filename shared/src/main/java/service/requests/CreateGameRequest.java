@@ -1,3 +1,12 @@
 package service.requests;
 
-public record CreateGameRequest(String gameName) {}
+/**
+ * @param baseSeconds      starting time on each clock; null for an untimed game
+ * @param incrementSeconds time added after each move; null means 0
+ */
+public record CreateGameRequest(String gameName, Integer baseSeconds, Integer incrementSeconds) {
+
+    public CreateGameRequest(String gameName) {
+        this(gameName, null, null);
+    }
+}
@@ -21,6 +21,17 @@ public class UserGameCommand {
     public ChessMove move;
     public ChessMove getMove() { return move; }
 
+    /**
+     * Set on CONNECT by clients that can apply moves locally. They receive a
+     * MOVE message after each move instead of a full LOAD_GAME.
+     */
+    public boolean deltaUpdates;
+
+    /**
+     * RESUME only: the last event sequence number the client received.
+     */
+    public long lastSeq;
+
     public UserGameCommand(CommandType commandType, String authToken, Integer gameID) {
         this.commandType = commandType;
         this.authToken = authToken;
@@ -31,7 +42,8 @@ public class UserGameCommand {
         CONNECT,
         MAKE_MOVE,
         LEAVE,
-        RESIGN
+        RESIGN,
+        RESUME
     }
 
     public CommandType getCommandType() {
@@ -1,6 +1,9 @@
 package websocket.messages;
 
+import chess.ChessClock;
 import chess.ChessGame;
+import chess.ChessGameCodec;
+import chess.ChessMove;
 
 import java.util.Objects;
 
@@ -16,7 +19,8 @@ public class ServerMessage {
     public enum ServerMessageType {
         LOAD_GAME,
         ERROR,
-        NOTIFICATION
+        NOTIFICATION,
+        MOVE
     }
 
     public ServerMessage(ServerMessageType type) {
@@ -31,9 +35,43 @@ public class ServerMessage {
     public String message;
     public String errorMessage;
 
+    // Position in the game's event sequence; 0 for messages sent to one client only.
+    public long seq;
+
+    // MOVE only: the applied move and the state it produced.
+    public ChessMove move;
+    public ChessGame.TeamColor teamTurn;
+    public boolean check;
+    public boolean checkmate;
+    public boolean stalemate;
+    public long positionHash;
+    public ChessClock clock;
+
+    /**
+     * Carries a copy of {@code game}, so the message still describes this
+     * moment if it is encoded after the game has moved on.
+     */
     public static ServerMessage loadGame(ChessGame game) {
         ServerMessage m = new ServerMessage(ServerMessageType.LOAD_GAME);
-        m.game = game;
+        m.game = ChessGameCodec.copy(game);
+        return m;
+    }
+
+    /**
+     * A compact update for clients that opted in with
+     * {@link websocket.commands.UserGameCommand#deltaUpdates}. {@code after} is
+     * the game once the move has been applied; its clock is copied for the
+     * same reason as in {@link #loadGame}.
+     */
+    public static ServerMessage move(ChessMove move, ChessGame after) {
+        ServerMessage m = new ServerMessage(ServerMessageType.MOVE);
+        m.move = move;
+        m.teamTurn = after.getTeamTurn();
+        m.checkmate = after.isInCheckmate(m.teamTurn);
+        m.stalemate = !m.checkmate && after.isInStalemate(m.teamTurn);
+        m.check = m.checkmate || after.isInCheck(m.teamTurn);
+        m.positionHash = ChessGameCodec.positionHash(after);
+        m.clock = after.getClock() == null ? null : after.getClock().copy();
         return m;
     }
 
@@ -0,0 +1,99 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChessGameCodecTests {
+
+    private static ChessMove move(int startRow, int startCol, int endRow, int endCol) {
+        return new ChessMove(new ChessPosition(startRow, startCol), new ChessPosition(endRow, endCol), null);
+    }
+
+    @Test
+    void testStartingPositionRoundTrip() {
+        ChessGame game = new ChessGame();
+
+        byte[] encoded = ChessGameCodec.encode(game);
+        ChessGame decoded = ChessGameCodec.decode(encoded);
+
+        assertEquals(ChessGameCodec.ENCODED_LENGTH, encoded.length);
+        assertEquals(game.getBoard(), decoded.getBoard());
+        assertEquals(ChessGame.TeamColor.WHITE, decoded.getTeamTurn());
+        assertFalse(decoded.isGameOver());
+    }
+
+    @Test
+    void testTurnEnPassantAndMovedFlagsPreserved() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move(2, 5, 4, 5));
+        game.makeMove(move(8, 7, 6, 6));
+        game.makeMove(move(1, 5, 2, 5));
+        game.makeMove(move(7, 4, 5, 4));
+
+        ChessGame decoded = ChessGameCodec.decode(ChessGameCodec.encode(game));
+
+        assertEquals(game.getBoard(), decoded.getBoard());
+        assertEquals(ChessGame.TeamColor.WHITE, decoded.getTeamTurn());
+        assertEquals(new ChessPosition(6, 4), decoded.getBoard().getEnPassantSquare());
+        assertTrue(decoded.getBoard().getPiece(new ChessPosition(2, 5)).hasMoved());
+        assertFalse(decoded.getBoard().getPiece(new ChessPosition(1, 1)).hasMoved());
+        assertEquals(game.validMoves(new ChessPosition(4, 5)), decoded.validMoves(new ChessPosition(4, 5)));
+    }
+
+    @Test
+    void testGameOverPreserved() {
+        ChessGame game = new ChessGame();
+        game.setGameOver(true);
+
+        assertTrue(ChessGameCodec.decode(ChessGameCodec.encode(game)).isGameOver());
+    }
+
+    @Test
+    void testUnknownVersionRejected() {
+        byte[] encoded = ChessGameCodec.encode(new ChessGame());
+        encoded[0] = 99;
+
+        assertThrows(IllegalArgumentException.class, () -> ChessGameCodec.decode(encoded));
+    }
+
+    @Test
+    void testClockRoundTripKeepsPositionHash() {
+        ChessGame game = new ChessGame();
+        long untimedHash = ChessGameCodec.positionHash(game);
+        game.setClock(new ChessClock(60_000, 1_000, 59_000, 61_000, 1_700_000_000_000L));
+
+        byte[] encoded = ChessGameCodec.encode(game);
+        ChessGame decoded = ChessGameCodec.decode(encoded);
+
+        assertEquals(ChessGameCodec.ENCODED_LENGTH_WITH_CLOCK, encoded.length);
+        assertEquals(game.getClock(), decoded.getClock());
+        assertEquals(untimedHash, ChessGameCodec.positionHash(decoded));
+        assertNull(ChessGameCodec.decode(ChessGameCodec.encode(new ChessGame())).getClock());
+    }
+
+    @Test
+    void testClockChargesMoverAndAddsIncrement() {
+        ChessClock clock = new ChessClock(10_000, 2_000);
+
+        assertTrue(clock.punch(ChessGame.TeamColor.WHITE, 1_000));
+        assertEquals(10_000, clock.getStoredMillis(ChessGame.TeamColor.WHITE));
+        assertEquals(11_000, clock.flagDeadline(ChessGame.TeamColor.BLACK));
+
+        assertTrue(clock.punch(ChessGame.TeamColor.BLACK, 4_000));
+        assertEquals(9_000, clock.getStoredMillis(ChessGame.TeamColor.BLACK));
+        assertEquals(0, clock.remainingMillis(ChessGame.TeamColor.WHITE, ChessGame.TeamColor.WHITE, 20_000));
+        assertFalse(clock.punch(ChessGame.TeamColor.WHITE, 20_000));
+    }
+
+    @Test
+    void testStartedClockChargesWhiteBeforeFirstMove() {
+        ChessClock clock = new ChessClock(10_000, 0);
+        clock.start(1_000);
+        clock.start(5_000);
+
+        assertEquals(11_000, clock.flagDeadline(ChessGame.TeamColor.WHITE));
+        assertTrue(clock.punch(ChessGame.TeamColor.WHITE, 4_000));
+        assertEquals(7_000, clock.getStoredMillis(ChessGame.TeamColor.WHITE));
+    }
+}
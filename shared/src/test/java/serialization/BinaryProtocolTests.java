@@ -0,0 +1,81 @@
+package serialization;
+
+import chess.*;
+import org.junit.jupiter.api.Test;
+import websocket.commands.UserGameCommand;
+import websocket.messages.ServerMessage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryProtocolTests {
+
+    @Test
+    void testMoveCommandRoundTrip() {
+        UserGameCommand cmd = new UserGameCommand(UserGameCommand.CommandType.MAKE_MOVE, "token", 42);
+        cmd.move = new ChessMove(new ChessPosition(7, 2), new ChessPosition(8, 1), ChessPiece.PieceType.KNIGHT);
+
+        byte[] encoded = BinaryProtocol.encodeCommand(cmd);
+        UserGameCommand decoded = BinaryProtocol.decodeCommand(encoded, 0, encoded.length);
+
+        assertEquals(cmd, decoded);
+        assertEquals(cmd.getMove(), decoded.getMove());
+        assertEquals(15, encoded.length);
+    }
+
+    @Test
+    void testResumeCommandKeepsSeqAndDeltaFlag() {
+        UserGameCommand cmd = new UserGameCommand(UserGameCommand.CommandType.RESUME, "token", 7);
+        cmd.lastSeq = 1_700_000_000_000_123L;
+        cmd.deltaUpdates = true;
+
+        byte[] encoded = BinaryProtocol.encodeCommand(cmd);
+        UserGameCommand decoded = BinaryProtocol.decodeCommand(encoded, 0, encoded.length);
+
+        assertEquals(cmd.lastSeq, decoded.lastSeq);
+        assertTrue(decoded.deltaUpdates);
+    }
+
+    @Test
+    void testLoadGameIsFarSmallerThanJson() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        ServerMessage load = ServerMessage.loadGame(game);
+        load.seq = 9;
+
+        byte[] encoded = BinaryProtocol.encodeMessage(load);
+        ServerMessage decoded = BinaryProtocol.decodeMessage(encoded, 0, encoded.length);
+
+        assertEquals(ServerMessage.ServerMessageType.LOAD_GAME, decoded.getServerMessageType());
+        assertEquals(9, decoded.seq);
+        assertEquals(game.getBoard(), decoded.game.getBoard());
+        assertEquals(ChessGame.TeamColor.BLACK, decoded.game.getTeamTurn());
+        assertTrue(encoded.length * 3 < Serializer.GSON.toJson(load).length());
+    }
+
+    @Test
+    void testMoveDeltaRoundTrip() throws InvalidMoveException {
+        ChessMove e4 = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+        ChessGame game = new ChessGame();
+        game.setClock(new ChessClock(60_000, 0));
+        game.makeMove(e4);
+        ServerMessage delta = ServerMessage.move(e4, game);
+
+        byte[] encoded = BinaryProtocol.encodeMessage(delta);
+        ServerMessage decoded = BinaryProtocol.decodeMessage(encoded, 0, encoded.length);
+
+        assertEquals(e4, decoded.move);
+        assertEquals(ChessGame.TeamColor.BLACK, decoded.teamTurn);
+        assertEquals(delta.positionHash, decoded.positionHash);
+        assertEquals(game.getClock(), decoded.clock);
+    }
+
+    @Test
+    void testTextMessagesRoundTrip() {
+        byte[] encoded = BinaryProtocol.encodeMessage(ServerMessage.error("nope"));
+        ServerMessage decoded = BinaryProtocol.decodeMessage(encoded, 0, encoded.length);
+
+        assertEquals(ServerMessage.ServerMessageType.ERROR, decoded.getServerMessageType());
+        assertEquals("Error: nope", decoded.errorMessage);
+        assertThrows(IllegalArgumentException.class, () -> BinaryProtocol.decodeMessage(new byte[] {1}, 0, 1));
+    }
+}
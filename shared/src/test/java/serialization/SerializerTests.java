@@ -0,0 +1,106 @@
+package serialization;
+
+import chess.*;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+import websocket.commands.UserGameCommand;
+import websocket.messages.ServerMessage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SerializerTests {
+
+    private static ChessMove move(int startRow, int startCol, int endRow, int endCol) {
+        return new ChessMove(new ChessPosition(startRow, startCol), new ChessPosition(endRow, endCol), null);
+    }
+
+    @Test
+    void testStartingBoardIsFen() {
+        JsonObject json = JsonParser.parseString(Serializer.GSON.toJson(new ChessGame())).getAsJsonObject();
+
+        assertEquals("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR",
+                json.getAsJsonObject("board").get("fen").getAsString());
+        assertEquals("WHITE", json.get("teamTurn").getAsString());
+    }
+
+    @Test
+    void testGameRoundTripKeepsTurnEnPassantAndMovedFlags() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move(2, 5, 4, 5));
+        game.makeMove(move(8, 7, 6, 6));
+        game.makeMove(move(1, 5, 2, 5));
+        game.makeMove(move(7, 4, 5, 4));
+
+        ChessGame decoded = Serializer.GSON.fromJson(Serializer.GSON.toJson(game), ChessGame.class);
+
+        assertEquals(game.getBoard(), decoded.getBoard());
+        assertEquals(ChessGame.TeamColor.WHITE, decoded.getTeamTurn());
+        assertEquals(new ChessPosition(6, 4), decoded.getBoard().getEnPassantSquare());
+        assertTrue(decoded.getBoard().getPiece(new ChessPosition(2, 5)).hasMoved());
+        assertFalse(decoded.getBoard().getPiece(new ChessPosition(1, 1)).hasMoved());
+    }
+
+    @Test
+    void testMoveCommandReadsReflectiveShape() {
+        String json = """
+                {"commandType":"MAKE_MOVE","authToken":"abc","gameID":3,
+                 "move":{"startPosition":{"row":7,"col":1},"endPosition":{"row":8,"col":1},"promotionPiece":"QUEEN"}}
+                """;
+
+        UserGameCommand cmd = Serializer.GSON.fromJson(json, UserGameCommand.class);
+
+        assertEquals(UserGameCommand.CommandType.MAKE_MOVE, cmd.getCommandType());
+        assertEquals(3, cmd.getGameID());
+        assertEquals(new ChessMove(new ChessPosition(7, 1), new ChessPosition(8, 1), ChessPiece.PieceType.QUEEN),
+                cmd.getMove());
+        assertEquals(cmd, Serializer.GSON.fromJson(Serializer.GSON.toJson(cmd), UserGameCommand.class));
+    }
+
+    @Test
+    void testServerMessagesOmitUnsetFields() {
+        String json = Serializer.GSON.toJson(ServerMessage.error("nope"));
+        ServerMessage loaded = Serializer.GSON.fromJson(
+                Serializer.GSON.toJson(ServerMessage.loadGame(new ChessGame())), ServerMessage.class);
+
+        assertFalse(json.contains("\"game\""));
+        assertEquals(ServerMessage.ServerMessageType.ERROR,
+                Serializer.GSON.fromJson(json, ServerMessage.class).getServerMessageType());
+        assertEquals(ServerMessage.ServerMessageType.LOAD_GAME, loaded.getServerMessageType());
+        assertEquals(new ChessGame().getBoard(), loaded.game.getBoard());
+    }
+
+    @Test
+    void testMoveDeltaReplaysToSamePosition() throws InvalidMoveException {
+        ChessMove e4 = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+        ChessGame server = new ChessGame();
+        server.makeMove(e4);
+
+        ServerMessage delta = Serializer.GSON.fromJson(
+                Serializer.GSON.toJson(ServerMessage.move(e4, server)), ServerMessage.class);
+        ChessGame client = new ChessGame();
+        client.makeMove(delta.move);
+
+        assertEquals(ServerMessage.ServerMessageType.MOVE, delta.getServerMessageType());
+        assertEquals(ChessGame.TeamColor.BLACK, delta.teamTurn);
+        assertFalse(delta.check);
+        assertEquals(ChessGameCodec.positionHash(server), delta.positionHash);
+        assertEquals(delta.positionHash, ChessGameCodec.positionHash(client));
+        assertNotEquals(delta.positionHash, ChessGameCodec.positionHash(new ChessGame()));
+    }
+
+    @Test
+    void testMessagesSnapshotGameAndClock() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.setClock(new ChessClock(60_000, 0));
+        ServerMessage load = ServerMessage.loadGame(game);
+        ServerMessage delta = ServerMessage.move(move(2, 5, 4, 5), game);
+
+        game.makeMove(move(2, 5, 4, 5));
+        game.getClock().punch(ChessGame.TeamColor.WHITE, 1_000);
+
+        assertEquals(new ChessGame().getBoard(), load.game.getBoard());
+        assertFalse(load.game.getClock().isRunning());
+        assertFalse(delta.clock.isRunning());
+    }
+}